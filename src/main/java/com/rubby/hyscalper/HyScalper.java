@@ -6,8 +6,11 @@ import com.rubby.hyscalper.commands.BaseSubCommand;
 import com.rubby.hyscalper.commands.sub.ConfigurateCommand;
 import com.rubby.hyscalper.commands.sub.KeyCommand;
 import com.rubby.hyscalper.commands.sub.ReloadCfgCommand;
+import com.rubby.hyscalper.commands.sub.StatsCommand;
 import com.rubby.hyscalper.commands.sub.ToggleCommand;
+import com.rubby.hyscalper.core.ApiClient;
 import com.rubby.hyscalper.core.Processor;
+import com.rubby.hyscalper.core.ScanScheduler;
 import com.rubby.hyscalper.events.ModEvents;
 import com.rubby.hyscalper.helpers.Constants;
 import com.rubby.hyscalper.helpers.DiscordWebhook;
@@ -25,8 +28,6 @@ import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import java.awt.*;
 import java.io.IOException;
 import java.util.Base64;
-import java.util.Timer;
-import java.util.TimerTask;
 
 @Mod(modid = HyScalper.MODID, version = Constants.VERSION)
 public class HyScalper
@@ -37,9 +38,10 @@ public class HyScalper
     public void preInit (FMLPreInitializationEvent event) throws IOException {
         Processor.Parser = new GsonBuilder().setPrettyPrinting().create();
         Processor.Configuration = Utils.GetConfigFile().isFile() ? Utils.GetConfig() : new Configuration();
+        ApiClient.Init(Processor.Configuration.MAX_THREADS * 2);
     }
 
-    public Timer timer = new Timer();
+    public ScanScheduler scheduler = new ScanScheduler();
 
     @EventHandler
     public void init (FMLInitializationEvent event) throws IOException {
@@ -47,25 +49,10 @@ public class HyScalper
                 new KeyCommand(),
                 new ToggleCommand(),
                 new ConfigurateCommand(),
-                new ReloadCfgCommand()
+                new ReloadCfgCommand(),
+                new StatsCommand()
         }));
 
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if (Processor.ToggleBoolean)
-                {
-                    try {
-                        Processor.Process();
-                    }
-                    catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                    catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-        }, Processor.Configuration.COOLDOWN * 1000, Processor.Configuration.COOLDOWN * 1000);
+        scheduler.Start(0);
     }
 }
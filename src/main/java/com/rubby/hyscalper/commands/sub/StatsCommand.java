@@ -0,0 +1,34 @@
+package com.rubby.hyscalper.commands.sub;
+
+import com.rubby.hyscalper.commands.BaseSubCommand;
+import com.rubby.hyscalper.core.Processor;
+import com.rubby.hyscalper.helpers.Utils;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.EnumChatFormatting;
+
+public class StatsCommand implements BaseSubCommand {
+    public StatsCommand() { }
+
+    @Override
+    public String getCommandName() {
+        return "stats";
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender) {
+        return "<none> - Shows the current fetch concurrency and page latency.";
+    }
+
+    @Override
+    public boolean processCommand(ICommandSender sender, String[] args) {
+        String msg = String.format("Concurrency: %s%s %s(%s-%s) %s| Page latency: %s%sms %savg, %s%sms %sbest",
+                EnumChatFormatting.WHITE, Processor.Limiter.GetLimit(), EnumChatFormatting.AQUA,
+                Processor.Configuration.MIN_THREADS, Processor.Configuration.MAX_THREADS, EnumChatFormatting.AQUA,
+                EnumChatFormatting.WHITE, Processor.Limiter.GetAverageLatency(), EnumChatFormatting.AQUA,
+                EnumChatFormatting.WHITE, Processor.Limiter.GetBestLatency(), EnumChatFormatting.AQUA);
+
+        Utils.SendMessage(msg);
+
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+package com.rubby.hyscalper.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Minimal HTTP layer for the Hypixel API.
+ * Connections are kept alive and pooled by the JDK, bodies are requested gzipped and handed to
+ * the caller as a raw byte stream so they can be parsed while they download.
+ */
+public class ApiClient {
+    private static final int DRAIN_LIMIT = 64 * 1024;
+    // How long the JDK keeps an idle connection when the server doesn't send a Keep-Alive timeout.
+    public static final long KEEP_ALIVE_TIME = 5000;
+
+    /**
+     * Sizes the JDK keep-alive pool, must run before the first HTTP request of the game
+     * since the pool size is only read once.
+     */
+    public static void Init(int maxConnections) {
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(5, maxConnections)));
+    }
+
+    /**
+     * Opens a GET request and returns its (decompressed) body.
+     * The stream must be closed, closing it drains what is left so the connection can be reused.
+     */
+    public static InputStream Open(String url) throws IOException {
+        return Get(url, null, null).Body;
+    }
+
+    /**
+     * Conditional GET, the validators of a previous response are sent along and a
+     * {@code 304 Not Modified} comes back as a response without a body.
+     */
+    public static Response Get(String url, String etag, String lastModified) throws IOException {
+        HttpURLConnection connection = Connect(url, "GET");
+        if (etag != null)
+            connection.setRequestProperty("If-None-Match", etag);
+        if (lastModified != null)
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+
+        Response response = new Response();
+        response.Status = connection.getResponseCode();
+        response.ETag = connection.getHeaderField("ETag");
+        response.LastModified = connection.getHeaderField("Last-Modified");
+
+        if (response.Status == HttpURLConnection.HTTP_NOT_MODIFIED)
+        {
+            Discard(connection);
+            return response;
+        }
+
+        if (response.Status != HttpURLConnection.HTTP_OK)
+        {
+            Discard(connection);
+            throw new StatusException(response.Status, url);
+        }
+
+        InputStream body = new BufferedInputStream(connection.getInputStream(), 16 * 1024);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding()))
+            body = new GZIPInputStream(body, 16 * 1024);
+
+        response.Body = new DrainingInputStream(body);
+        return response;
+    }
+
+    /**
+     * Opens up to {@code connections} keep-alive connections to the host of {@code url} in the
+     * background, so the page requests that follow don't pay for the handshakes.
+     */
+    public static void Warm(String url, int connections, Executor executor) throws IOException {
+        URL target = new URL(url);
+        String root = target.getProtocol() + "://" + target.getAuthority() + "/";
+
+        for (int i = 0; i < connections; i++)
+        {
+            executor.execute(() -> {
+                try {
+                    HttpURLConnection connection = Connect(root, "HEAD");
+                    connection.getResponseCode();
+                    Discard(connection);
+                }
+                catch (IOException ignored) {
+                    // Warming is best effort, the real request will report the failure.
+                }
+            });
+        }
+    }
+
+    private static HttpURLConnection Connect(String url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(Processor.Configuration.CONNECT_TIMEOUT);
+        connection.setReadTimeout(Processor.Configuration.READ_TIMEOUT);
+        connection.setUseCaches(false);
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("Connection", "keep-alive");
+        connection.setRequestProperty("User-Agent", "HyScalper");
+        return connection;
+    }
+
+    /**
+     * Reads and closes whatever body a connection has, which is what returns it to the pool.
+     */
+    private static void Discard(HttpURLConnection connection) {
+        try {
+            InputStream stream = connection.getResponseCode() >= 400
+                    ? connection.getErrorStream()
+                    : connection.getInputStream();
+
+            if (stream != null)
+                new DrainingInputStream(stream).close();
+        }
+        catch (IOException ignored) {
+            connection.disconnect();
+        }
+    }
+
+    public static class StatusException extends IOException {
+        public final int Status;
+
+        public StatusException(int status, String url) {
+            super(String.format("Server returned HTTP %s for %s", status, url));
+            this.Status = status;
+        }
+    }
+
+    public static class Response implements Closeable {
+        public int Status;
+        public String ETag;
+        public String LastModified;
+        public InputStream Body;
+
+        public boolean IsNotModified() {
+            return Status == HttpURLConnection.HTTP_NOT_MODIFIED;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Body != null)
+                Body.close();
+        }
+    }
+
+    private static class DrainingInputStream extends FilterInputStream {
+        private DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                byte[] buffer = new byte[4096];
+                int drained = 0;
+                int read;
+
+                while (drained < DRAIN_LIMIT && (read = in.read(buffer)) != -1)
+                    drained += read;
+            }
+            finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.rubby.hyscalper.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The listings of a page or a whole snapshot, stored column by column instead of as one object
+ * per listing: auction ids as two longs, prices and item keys as ints, tiers as byte codes. Lore
+ * and category are only needed by the filters while parsing and aren't kept, and the item bytes
+ * are only kept for listings that still need decoding.
+ */
+public class AuctionColumns {
+    /**
+     * Assigns small codes to the few distinct values of a column, new values get the next code.
+     */
+    private static class CodeTable {
+        private final Map<String, Byte> Codes = new ConcurrentHashMap<>();
+        private final List<String> Names = new ArrayList<>();
+
+        private CodeTable(String... names) {
+            for (String name : names)
+                Code(name);
+        }
+
+        private byte Code(String name) {
+            Byte code = Codes.get(name);
+            return code != null ? code : Add(name);
+        }
+
+        private synchronized byte Add(String name) {
+            Byte code = Codes.get(name);
+            if (code != null)
+                return code;
+
+            if (Names.size() > Byte.MAX_VALUE)
+                throw new IllegalStateException("Too many distinct values for a byte code: " + name);
+
+            code = (byte)Names.size();
+            Names.add(name);
+            Codes.put(name, code);
+            return code;
+        }
+
+        private synchronized String Name(byte code) {
+            return Names.get(code);
+        }
+    }
+
+    private static final CodeTable Tiers = new CodeTable(
+            "COMMON", "UNCOMMON", "RARE", "EPIC", "LEGENDARY", "MYTHIC", "DIVINE", "SPECIAL", "VERY_SPECIAL");
+
+    private int Size = 0;
+    private long[] Ids;
+    private int[] Prices;
+    private int[] Keys;
+    private byte[] TierCodes;
+    private String[] ItemNames;
+    private String[] ItemBytes;
+
+    public AuctionColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.Ids = new long[capacity * 2];
+        this.Prices = new int[capacity];
+        this.Keys = new int[capacity];
+        this.TierCodes = new byte[capacity];
+        this.ItemNames = new String[capacity];
+        this.ItemBytes = new String[capacity];
+    }
+
+    /**
+     * @param itemBytes May be null for listings that were already decoded.
+     */
+    public void Add(long idHigh, long idLow, int price, String tier, String itemName, String itemBytes) {
+        EnsureCapacity(Size + 1);
+
+        Ids[Size * 2] = idHigh;
+        Ids[Size * 2 + 1] = idLow;
+        Prices[Size] = price;
+        Keys[Size] = -1;
+        TierCodes[Size] = Tiers.Code(tier);
+        ItemNames[Size] = itemName;
+        ItemBytes[Size] = itemBytes;
+        Size++;
+    }
+
+    public void AddAll(AuctionColumns other) {
+        EnsureCapacity(Size + other.Size);
+
+        System.arraycopy(other.Ids, 0, Ids, Size * 2, other.Size * 2);
+        System.arraycopy(other.Prices, 0, Prices, Size, other.Size);
+        System.arraycopy(other.Keys, 0, Keys, Size, other.Size);
+        System.arraycopy(other.TierCodes, 0, TierCodes, Size, other.Size);
+        System.arraycopy(other.ItemNames, 0, ItemNames, Size, other.Size);
+        System.arraycopy(other.ItemBytes, 0, ItemBytes, Size, other.Size);
+        Size += other.Size;
+    }
+
+    public int Size() {
+        return Size;
+    }
+
+    public AuctionId Id(int index) {
+        return new AuctionId(Ids[index * 2], Ids[index * 2 + 1]);
+    }
+
+    public long IdHigh(int index) {
+        return Ids[index * 2];
+    }
+
+    public long IdLow(int index) {
+        return Ids[index * 2 + 1];
+    }
+
+    public int Price(int index) {
+        return Prices[index];
+    }
+
+    /**
+     * @return The {@link ItemKeys} id of the listing, -1 until it was grouped or if it is ignored.
+     */
+    public int Key(int index) {
+        return Keys[index];
+    }
+
+    public void SetKey(int index, int key) {
+        Keys[index] = key;
+    }
+
+    public String Tier(int index) {
+        return Tiers.Name(TierCodes[index]);
+    }
+
+    public String ItemName(int index) {
+        return ItemNames[index];
+    }
+
+    public String ItemBytes(int index) {
+        return ItemBytes[index];
+    }
+
+    private void EnsureCapacity(int capacity) {
+        if (capacity <= Prices.length)
+            return;
+
+        capacity = Math.max(capacity, Prices.length * 2);
+        Ids = Arrays.copyOf(Ids, capacity * 2);
+        Prices = Arrays.copyOf(Prices, capacity);
+        Keys = Arrays.copyOf(Keys, capacity);
+        TierCodes = Arrays.copyOf(TierCodes, capacity);
+        ItemNames = Arrays.copyOf(ItemNames, capacity);
+        ItemBytes = Arrays.copyOf(ItemBytes, capacity);
+    }
+}
@@ -0,0 +1,116 @@
+package com.rubby.hyscalper.core;
+
+import com.rubby.hyscalper.helpers.KeywordMatcher;
+import com.rubby.hyscalper.interfaces.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The ignore flags and whitelist of a {@link Configuration}, compiled once into one check per
+ * auction field. Flags that are off compile to nothing, so an auction only pays for the filters
+ * that are enabled, and the parser can reject a listing on the first field that fails, cheapest
+ * fields first.
+ */
+public class AuctionFilter {
+    private final Configuration Config;
+    private final Predicate<String> CategoryCheck;
+    private final Predicate<String> NameCheck;
+    private final KeywordMatcher LoreMatcher;
+
+    private final Set<String> WhitelistNames;
+    private final Map<String, KeywordMatcher> WhitelistLore;
+
+    private AuctionFilter(Configuration config) {
+        this.Config = config;
+
+        this.CategoryCheck = config.IGNORE_ACCESSORIES ? "accessories"::equals : null;
+        this.NameCheck = config.IGNORE_SKINS ? name -> name.contains("Skin") : null;
+
+        List<String> loreKeywords = new ArrayList<>();
+        if (config.IGNORE_CAKE_SOULS)
+            loreKeywords.add("Cake Soul");
+        if (config.IGNORE_FURNITURE)
+            loreKeywords.add("Furniture");
+        for (String keyword : config.LORE_BLACKLIST)
+        {
+            if (!keyword.isEmpty())
+                loreKeywords.add(keyword);
+        }
+        this.LoreMatcher = loreKeywords.isEmpty() ? null : new KeywordMatcher(loreKeywords);
+
+        // Exact names go in a hash set, "name|lore" entries get one matcher per name over all of
+        // that name's lore keywords, so the whitelist costs the same however long it gets.
+        this.WhitelistNames = new HashSet<>();
+        Map<String, List<String>> loreByName = new HashMap<>();
+        for (String entry : config.WHITELIST_ITEMS)
+        {
+            int separator = entry.indexOf('|');
+            if (separator >= 0)
+            {
+                String name = entry.substring(0, separator);
+                if (!loreByName.containsKey(name))
+                    loreByName.put(name, new ArrayList<>());
+                loreByName.get(name).add(entry.substring(separator + 1));
+            }
+            else
+            {
+                WhitelistNames.add(entry);
+            }
+        }
+
+        this.WhitelistLore = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : loreByName.entrySet())
+            WhitelistLore.put(entry.getKey(), new KeywordMatcher(entry.getValue()));
+    }
+
+    public static AuctionFilter Compile(Configuration config) {
+        return new AuctionFilter(config);
+    }
+
+    public boolean IsFor(Configuration config) {
+        return Config == config;
+    }
+
+    /**
+     * @return Whether any check needs the lore, if not the parser can skip it entirely.
+     */
+    public boolean NeedsLore() {
+        return LoreMatcher != null || !WhitelistLore.isEmpty();
+    }
+
+    public boolean HasWhitelist() {
+        return !WhitelistNames.isEmpty() || !WhitelistLore.isEmpty();
+    }
+
+    public boolean RejectsCategory(String category) {
+        return CategoryCheck != null && CategoryCheck.test(category);
+    }
+
+    public boolean RejectsName(String name) {
+        return NameCheck != null && NameCheck.test(name);
+    }
+
+    /**
+     * Checks every ignored lore keyword and the {@code LORE_BLACKLIST} in a single scan of the lore.
+     */
+    public boolean RejectsLore(String lore) {
+        return LoreMatcher != null && LoreMatcher.ContainsAny(lore);
+    }
+
+    /**
+     * Final check once the whole listing was read, only the whitelist needs more than one field.
+     */
+    public boolean IsWhitelisted(String name, String lore) {
+        if (!HasWhitelist() || WhitelistNames.contains(name))
+            return true;
+
+        KeywordMatcher matcher = WhitelistLore.get(name);
+        return matcher != null && lore != null && matcher.ContainsAny(lore);
+    }
+}
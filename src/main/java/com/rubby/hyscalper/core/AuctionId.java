@@ -0,0 +1,95 @@
+package com.rubby.hyscalper.core;
+
+/**
+ * An auction uuid as two longs instead of a 32 character string.
+ */
+public final class AuctionId {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public final long High;
+    public final long Low;
+
+    public AuctionId(long high, long low) {
+        this.High = high;
+        this.Low = low;
+    }
+
+    /**
+     * Parses a uuid with or without dashes.
+     *
+     * @throws NumberFormatException If the uuid isn't 32 hex digits.
+     */
+    public static AuctionId Parse(String uuid) {
+        long high = 0, low = 0;
+        int digits = 0;
+
+        for (int i = 0; i < uuid.length(); i++)
+        {
+            char c = uuid.charAt(i);
+            if (c == '-')
+                continue;
+
+            int digit = Character.digit(c, 16);
+            if (digit < 0 || digits == 32)
+                throw new NumberFormatException("Malformed uuid: " + uuid);
+
+            if (digits < 16)
+                high = (high << 4) | digit;
+            else
+                low = (low << 4) | digit;
+            digits++;
+        }
+
+        if (digits != 32)
+            throw new NumberFormatException("Malformed uuid: " + uuid);
+
+        return new AuctionId(high, low);
+    }
+
+    /**
+     * Spreads both halves over an int, for hash tables.
+     */
+    public static int Hash(long high, long low) {
+        long hash = high * 0x9E3779B97F4A7C15L ^ low;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int)hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof AuctionId))
+            return false;
+
+        AuctionId id = (AuctionId)o;
+        return High == id.High && Low == id.Low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Hash(High, Low);
+    }
+
+    /**
+     * @return The uuid the way the API writes it, 32 lowercase hex digits without dashes.
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[32];
+        long high = High;
+        long low = Low;
+
+        for (int i = 15; i >= 0; i--)
+        {
+            chars[i] = HEX[(int)(high & 0xF)];
+            chars[i + 16] = HEX[(int)(low & 0xF)];
+            high >>>= 4;
+            low >>>= 4;
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,197 @@
+package com.rubby.hyscalper.core;
+
+import java.util.Arrays;
+
+/**
+ * A set of auction ids stored as pairs of longs in one open-addressing table, with no object per
+ * entry. With a time to live, entries expire that long after they were added and are dropped the
+ * next time the table fills up, so a set that lives for the whole session stays bounded.
+ */
+public class AuctionIdSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final long TimeToLive;
+    private long[] Ids;
+    private long[] Expires;
+    private boolean[] Used;
+    private int Size = 0;
+
+    public AuctionIdSet(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * @param timeToLive How long entries stay in the set in ms, 0 to keep them until cleared.
+     */
+    public AuctionIdSet(int expectedSize, long timeToLive) {
+        this.TimeToLive = timeToLive;
+        Allocate(Capacity(expectedSize));
+    }
+
+    public boolean Contains(AuctionId id) {
+        return Contains(id.High, id.Low);
+    }
+
+    public boolean Contains(long high, long low) {
+        int slot = Find(high, low);
+        return Used[slot] && !IsExpired(slot, System.currentTimeMillis());
+    }
+
+    public boolean Add(AuctionId id) {
+        return Add(id.High, id.Low);
+    }
+
+    /**
+     * @return false if the id was already in the set.
+     */
+    public boolean Add(long high, long low) {
+        long now = System.currentTimeMillis();
+        int slot = Find(high, low);
+
+        if (Used[slot])
+        {
+            if (!IsExpired(slot, now))
+                return false;
+
+            Expires[slot] = ExpiryFrom(now);
+            return true;
+        }
+
+        if (Size + 1 > Used.length * LOAD_FACTOR)
+        {
+            Rehash(now);
+            slot = Find(high, low);
+        }
+
+        Ids[slot * 2] = high;
+        Ids[slot * 2 + 1] = low;
+        Expires[slot] = ExpiryFrom(now);
+        Used[slot] = true;
+        Size++;
+        return true;
+    }
+
+    public boolean Remove(AuctionId id) {
+        return Remove(id.High, id.Low);
+    }
+
+    /**
+     * @return false if the id wasn't in the set.
+     */
+    public boolean Remove(long high, long low) {
+        int slot = Find(high, low);
+        if (!Used[slot])
+            return false;
+
+        boolean live = !IsExpired(slot, System.currentTimeMillis());
+        Delete(slot);
+        Size--;
+        return live;
+    }
+
+    /**
+     * @return How many entries the set holds, including expired ones that weren't dropped yet.
+     */
+    public int Size() {
+        return Size;
+    }
+
+    public void Clear() {
+        Arrays.fill(Used, false);
+        Size = 0;
+    }
+
+    /**
+     * @return The slot holding the id, or the empty slot it would go in.
+     */
+    private int Find(long high, long low) {
+        int mask = Used.length - 1;
+        int slot = AuctionId.Hash(high, low) & mask;
+
+        while (Used[slot] && (Ids[slot * 2] != high || Ids[slot * 2 + 1] != low))
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving later entries of the same probe chain back into the hole so lookups
+     * never stop early at it.
+     */
+    private void Delete(int slot) {
+        int mask = Used.length - 1;
+        int hole = slot;
+
+        for (int next = (slot + 1) & mask; Used[next]; next = (next + 1) & mask)
+        {
+            int home = AuctionId.Hash(Ids[next * 2], Ids[next * 2 + 1]) & mask;
+            if (((next - home) & mask) < ((next - hole) & mask))
+                continue;
+
+            Ids[hole * 2] = Ids[next * 2];
+            Ids[hole * 2 + 1] = Ids[next * 2 + 1];
+            Expires[hole] = Expires[next];
+            hole = next;
+        }
+
+        Used[hole] = false;
+    }
+
+    private boolean IsExpired(int slot, long now) {
+        return TimeToLive > 0 && Expires[slot] <= now;
+    }
+
+    private long ExpiryFrom(long now) {
+        return TimeToLive > 0 ? now + TimeToLive : Long.MAX_VALUE;
+    }
+
+    /**
+     * Drops expired entries, growing the table only if it is still too full without them.
+     */
+    private void Rehash(long now) {
+        long[] ids = Ids;
+        long[] expires = Expires;
+        boolean[] used = Used;
+
+        int live = 0;
+        for (int i = 0; i < used.length; i++)
+        {
+            if (used[i] && !(TimeToLive > 0 && expires[i] <= now))
+                live++;
+        }
+
+        // Leaves room for half as many entries again, so a set that isn't expiring anything doubles.
+        Allocate(Capacity(live + live / 2));
+        Size = 0;
+
+        for (int i = 0; i < used.length; i++)
+        {
+            if (!used[i] || (TimeToLive > 0 && expires[i] <= now))
+                continue;
+
+            int slot = Find(ids[i * 2], ids[i * 2 + 1]);
+            Ids[slot * 2] = ids[i * 2];
+            Ids[slot * 2 + 1] = ids[i * 2 + 1];
+            Expires[slot] = expires[i];
+            Used[slot] = true;
+            Size++;
+        }
+    }
+
+    private void Allocate(int capacity) {
+        Ids = new long[capacity * 2];
+        Expires = new long[capacity];
+        Used = new boolean[capacity];
+    }
+
+    /**
+     * @return A power of two big enough to hold {@code size} entries under the load factor.
+     */
+    private static int Capacity(int size) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < size + 1)
+            capacity <<= 1;
+
+        return capacity;
+    }
+}
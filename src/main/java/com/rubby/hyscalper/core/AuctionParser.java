@@ -0,0 +1,149 @@
+package com.rubby.hyscalper.core;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.rubby.hyscalper.interfaces.Api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams an auctions page straight from the response body.
+ * The cheap checks of the {@link AuctionFilter} run as soon as the field they depend on is read
+ * and the rest of a rejected listing is skipped without being decoded. The lore is only scanned
+ * once every other field passed, and only listings that pass every filter are added to the
+ * page's {@link AuctionColumns}.
+ */
+public class AuctionParser {
+    /**
+     * Stops before the auctions if the page's lastUpdated equals {@code knownLastUpdated}, in
+     * which case the returned page has no auction list. Pass 0 to always read them.
+     *
+     * @param decoded Listings already in this cache don't keep their item bytes, may be null.
+     */
+    public static Api Parse(InputStream stream, AuctionFilter filter, long knownLastUpdated, DecodeCache decoded) throws IOException {
+        Api page = new Api();
+
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            switch (reader.nextName())
+            {
+                case "totalPages":
+                    page.totalPages = reader.nextInt();
+                    break;
+                case "lastUpdated":
+                    page.lastUpdated = reader.nextLong();
+                    break;
+                case "auctions":
+                    if (knownLastUpdated != 0 && page.lastUpdated == knownLastUpdated)
+                        return page;
+
+                    page.auctions = new AuctionColumns(1000);
+                    ReadAuctions(reader, filter, decoded, page.auctions);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (page.auctions == null)
+            page.auctions = new AuctionColumns(0);
+
+        return page;
+    }
+
+    private static void ReadAuctions(JsonReader reader, AuctionFilter filter, DecodeCache decoded, AuctionColumns output) throws IOException {
+        boolean needsLore = filter.NeedsLore();
+
+        reader.beginArray();
+        while (reader.hasNext())
+            ReadAuction(reader, filter, needsLore, decoded, output);
+        reader.endArray();
+    }
+
+    private static void ReadAuction(JsonReader reader, AuctionFilter filter, boolean needsLore, DecodeCache decoded, AuctionColumns output) throws IOException {
+        String name = null, lore = null, itemBytes = null, tier = null;
+        AuctionId id = null;
+        int startingBid = 0;
+        boolean bin = false;
+        boolean rejected = false;
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String field = reader.nextName();
+
+            if (rejected || reader.peek() == JsonToken.NULL)
+            {
+                reader.skipValue();
+                continue;
+            }
+
+            switch (field)
+            {
+                case "bin":
+                    bin = reader.nextBoolean();
+                    rejected = !bin;
+                    break;
+                case "category":
+                    rejected = filter.RejectsCategory(reader.nextString());
+                    break;
+                case "item_name":
+                    name = reader.nextString();
+                    rejected = filter.RejectsName(name);
+                    break;
+                case "item_lore":
+                    if (!needsLore)
+                    {
+                        reader.skipValue();
+                        break;
+                    }
+
+                    lore = reader.nextString();
+                    break;
+                case "starting_bid":
+                    startingBid = (int)Math.min(reader.nextLong(), Integer.MAX_VALUE);
+                    break;
+                case "uuid":
+                    try {
+                        id = AuctionId.Parse(reader.nextString());
+                    }
+                    catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                    break;
+                case "item_bytes":
+                    // The uuid comes first, listings we decoded before don't need their item bytes again.
+                    if (id != null && decoded != null && decoded.Contains(id))
+                    {
+                        reader.skipValue();
+                        break;
+                    }
+
+                    itemBytes = reader.nextString();
+                    break;
+                case "tier":
+                    tier = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        // bin is omitted entirely on regular auctions. The lore checks are the expensive ones, so
+        // they only run once everything else passed.
+        if (rejected || !bin || id == null || tier == null ||
+                (lore != null && filter.RejectsLore(lore)) || !filter.IsWhitelisted(name, lore))
+            return;
+
+        output.Add(id.High, id.Low, startingBid, tier, name, itemBytes);
+    }
+}
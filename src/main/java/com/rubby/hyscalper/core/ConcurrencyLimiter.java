@@ -0,0 +1,101 @@
+package com.rubby.hyscalper.core;
+
+/**
+ * Limits how many page requests are in flight, adjusting the limit with AIMD.
+ * Every request that comes back fast grows the limit by {@code 1 / limit} (so roughly one per
+ * round of requests), while a 429, a failed request or a latency far above the best we have seen
+ * halves it, at most once per round. The limit always stays within {@code MIN_THREADS} and
+ * {@code MAX_THREADS}.
+ */
+public class ConcurrencyLimiter {
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    public enum Outcome {
+        SUCCESS,
+        THROTTLED,
+        FAILED
+    }
+
+    private double Limit = -1;
+    private int InFlight = 0;
+
+    private double AverageLatency = 0;
+    private long BestLatency = Long.MAX_VALUE;
+    private long LastDecrease = 0;
+
+    public synchronized void Acquire() throws InterruptedException {
+        while (InFlight >= GetLimit())
+            wait();
+
+        InFlight++;
+    }
+
+    /**
+     * Hands back a slot taken with {@link #Acquire()} and feeds the request's result into the limit.
+     */
+    public synchronized void Release(long latency, Outcome outcome) {
+        InFlight--;
+
+        int min = MinThreads();
+        int max = MaxThreads();
+        double limit = Math.max(min, Math.min(max, Limit < 0 ? GetLimit() : Limit));
+
+        if (outcome == Outcome.SUCCESS)
+        {
+            AverageLatency = AverageLatency == 0
+                    ? latency
+                    : AverageLatency + (latency - AverageLatency) * LATENCY_SMOOTHING;
+
+            // Let the best latency creep up so a single lucky request doesn't pin the limit down forever.
+            BestLatency = BestLatency == Long.MAX_VALUE
+                    ? latency
+                    : Math.min(latency, BestLatency + Math.max(1, BestLatency / 100));
+        }
+
+        boolean congested = outcome != Outcome.SUCCESS ||
+                latency > BestLatency * Processor.Configuration.LATENCY_TOLERANCE;
+
+        long now = System.currentTimeMillis();
+        if (congested)
+        {
+            // The requests that were in flight together all see the same congestion, only react once.
+            if (now - LastDecrease > AverageLatency)
+            {
+                limit = Math.max(min, limit / 2);
+                LastDecrease = now;
+            }
+        }
+        else
+        {
+            limit = Math.min(max, limit + 1 / limit);
+        }
+
+        Limit = limit;
+        notifyAll();
+    }
+
+    public synchronized int GetLimit() {
+        if (Limit < 0)
+            Limit = Processor.Configuration.THREAD_COUNT;
+
+        // Bounds may have changed with a config reload.
+        Limit = Math.max(MinThreads(), Math.min(MaxThreads(), Limit));
+        return (int)Limit;
+    }
+
+    private static int MinThreads() {
+        return Math.max(1, Processor.Configuration.MIN_THREADS);
+    }
+
+    public static int MaxThreads() {
+        return Math.max(MinThreads(), Processor.Configuration.MAX_THREADS);
+    }
+
+    public synchronized long GetAverageLatency() {
+        return Math.round(AverageLatency);
+    }
+
+    public synchronized long GetBestLatency() {
+        return BestLatency == Long.MAX_VALUE ? 0 : BestLatency;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rubby.hyscalper.core;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Decoded item attributes by auction uuid. An auction's {@code item_bytes} never change while it
+ * is listed, so each listing is decoded once no matter how many scans, snipes or config reloads
+ * see it. Listings that left the auction house are dropped with {@link #Retain(Predicate)}, and
+ * past {@code capacity} entries new listings are decoded without being cached.
+ */
+public class DecodeCache {
+    private final Map<AuctionId, ItemAttributes> Entries;
+    private final int Capacity;
+
+    public DecodeCache(int capacity) {
+        this.Capacity = capacity;
+        this.Entries = new ConcurrentHashMap<>(capacity / 4);
+    }
+
+    public boolean Contains(AuctionId id) {
+        return Entries.containsKey(id);
+    }
+
+    /**
+     * @param itemBytes May be null if the listing is in the cache.
+     */
+    public ItemAttributes Get(AuctionId id, String itemBytes) throws IOException {
+        ItemAttributes attributes = Entries.get(id);
+        if (attributes == null)
+        {
+            if (itemBytes == null)
+                throw new IOException("Item bytes of " + id + " were skipped but it is no longer cached");
+
+            attributes = ItemDecoder.Decode(itemBytes);
+            if (Entries.size() < Capacity)
+                Entries.put(id, attributes);
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Drops every listing that is no longer {@code present}.
+     */
+    public void Retain(Predicate<AuctionId> present) {
+        Entries.keySet().removeIf(id -> !present.test(id));
+    }
+}
@@ -0,0 +1,20 @@
+package com.rubby.hyscalper.core;
+
+/**
+ * The few item attributes grouping needs, decoded from an auction's {@code item_bytes}.
+ */
+public class ItemAttributes {
+    public final String Id;
+    public final int Count;
+    public final String Modifier;
+    public final int RarityUpgrades;
+    public final int Stars;
+
+    public ItemAttributes(String id, int count, String modifier, int rarityUpgrades, int stars) {
+        this.Id = id;
+        this.Count = count;
+        this.Modifier = modifier;
+        this.RarityUpgrades = rarityUpgrades;
+        this.Stars = stars;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rubby.hyscalper.core;
+
+import com.nullicorn.nedit.filter.FilteredNBTInputStream;
+import com.nullicorn.nedit.filter.NBTFilter;
+import com.nullicorn.nedit.type.NBTCompound;
+import com.nullicorn.nedit.type.NBTList;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes only the tags listed in {@link #FILTER} from an item's NBT, the display name, lore,
+ * enchantments and everything else are skipped in the byte stream instead of being built into
+ * a tree we would throw away.
+ */
+public class ItemDecoder {
+    private static final NBTFilter FILTER = NBTFilter.with(
+            "i.Count",
+            "i.tag.ExtraAttributes.id",
+            "i.tag.ExtraAttributes.modifier",
+            "i.tag.ExtraAttributes.rarity_upgrades",
+            "i.tag.ExtraAttributes.dungeon_item_level",
+            "i.tag.ExtraAttributes.upgrade_level");
+    private static final int BUFFER_SIZE = 512;
+
+    public static ItemAttributes Decode(String itemBytes) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(itemBytes);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Item bytes aren't valid base64", e);
+        }
+
+        // The NBT stream reads a byte at a time, so gunzip into a buffer here instead of letting
+        // it inflate byte by byte.
+        InputStream input = new ByteArrayInputStream(bytes);
+        if (bytes.length > 1 && bytes[0] == (byte)0x1F && bytes[1] == (byte)0x8B)
+            input = new BufferedInputStream(new GZIPInputStream(input, BUFFER_SIZE), BUFFER_SIZE);
+
+        NBTCompound baseCompound;
+        // Ids and modifiers repeat across thousands of listings, interned they are shared by every cached decode.
+        try (FilteredNBTInputStream stream = new FilteredNBTInputStream(input, true, true)) {
+            baseCompound = stream.readFully(FILTER);
+        }
+
+        NBTList baseList = baseCompound.getList("i");
+        if (baseList == null || baseList.isEmpty())
+            throw new IOException("Item bytes without an item");
+
+        NBTCompound listCompound = baseList.getCompound(0);
+        NBTCompound atr = listCompound.getCompound("tag.ExtraAttributes");
+        if (atr == null)
+            atr = new NBTCompound();
+
+        return new ItemAttributes(
+                atr.getString("id"),
+                listCompound.getInt("Count", 1),
+                atr.getString("modifier"),
+                atr.getInt("rarity_upgrades", 0),
+                atr.getInt("dungeon_item_level", atr.getInt("upgrade_level", 0)));
+    }
+}
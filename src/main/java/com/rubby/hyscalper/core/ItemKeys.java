@@ -0,0 +1,45 @@
+package com.rubby.hyscalper.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global dictionary of canonical item keys, built from {@code ExtraAttributes.id}, the tier and
+ * whatever qualifiers the configuration keeps apart. Every key gets a dense int id the first time
+ * it is seen and keeps it for the whole session, so groups stay the same across scans and can
+ * live in arrays indexed by id instead of maps keyed by display strings.
+ */
+public class ItemKeys {
+    private static final Map<String, Integer> Ids = new ConcurrentHashMap<>();
+    private static final List<String> DisplayNames = new ArrayList<>();
+
+    /**
+     * @return The id of the key, or -1 if it wasn't added yet.
+     */
+    public static int Find(String key) {
+        Integer id = Ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Adds a key, or returns its id if another thread added it first.
+     *
+     * @param displayName The name shown in hits for the key.
+     */
+    public static synchronized int Add(String key, String displayName) {
+        Integer id = Ids.get(key);
+        if (id != null)
+            return id;
+
+        id = DisplayNames.size();
+        DisplayNames.add(displayName);
+        Ids.put(key, id);
+        return id;
+    }
+
+    public static synchronized String DisplayName(int id) {
+        return DisplayNames.get(id);
+    }
+}
@@ -0,0 +1,212 @@
+package com.rubby.hyscalper.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out API keys for individual requests.
+ * Every key has a token bucket holding up to {@code KEY_BURST} requests, refilled so that a full
+ * bucket plus a minute of refill never exceeds {@code KEY_REQUESTS_PER_MINUTE}. Requests are
+ * spread round-robin over the keys that have tokens left, and a key that gets a 403 or 429 back
+ * is benched for {@code KEY_COOLDOWN} seconds. Full scans wait for tokens, the sniper only takes
+ * the ones the next full scan won't need, counting what refills before it is due.
+ */
+public class KeyPool {
+    private static class Bucket {
+        private final String Key;
+        private double Tokens;
+        private long LastRefill;
+        private long CooldownUntil;
+
+        private Bucket(String key, double tokens, long now) {
+            this.Key = key;
+            this.Tokens = tokens;
+            this.LastRefill = now;
+        }
+    }
+
+    private final Map<String, Bucket> Buckets = new HashMap<>();
+    private List<Bucket> Order = new ArrayList<>();
+    private List<String> Keys = new ArrayList<>();
+    private int Next = 0;
+
+    /**
+     * Takes a token from the next key that has one, waiting for a refill as long as it takes so a
+     * full scan is never cut short by the rate limit.
+     *
+     * @throws IOException If no keys are configured.
+     */
+    public synchronized String Acquire() throws IOException, InterruptedException {
+        while (true)
+        {
+            long now = System.currentTimeMillis();
+            Sync(now);
+
+            if (Order.isEmpty())
+                throw new IOException("No API keys configured");
+
+            String key = Take(now);
+            if (key != null)
+                return key;
+
+            wait(Math.max(1, NextToken(now)));
+        }
+    }
+
+    /**
+     * Takes a token only if at least {@code reserve} are still there at {@code until}, counting
+     * what refills until then, so background polls can't use up the budget a full scan needs.
+     *
+     * @return The key, or null if there isn't enough budget right now.
+     */
+    public synchronized String TryAcquire(int reserve, long until) throws IOException {
+        long now = System.currentTimeMillis();
+        Sync(now);
+
+        if (Order.isEmpty())
+            throw new IOException("No API keys configured");
+
+        return Spare(now, reserve, until) >= 1 ? Take(now) : null;
+    }
+
+    /**
+     * @return How many tokens can be taken now while still leaving {@code reserve} at {@code until}.
+     */
+    public synchronized int Spare(int reserve, long until) {
+        long now = System.currentTimeMillis();
+        Sync(now);
+        return Spare(now, reserve, until);
+    }
+
+    /**
+     * Reports the HTTP status a request made with {@code key} got, benching the key if it was
+     * rejected or rate limited.
+     */
+    public synchronized void Report(String key, int status) {
+        if (status != 403 && status != 429)
+            return;
+
+        Bucket bucket = Buckets.get(key);
+        if (bucket != null)
+        {
+            bucket.CooldownUntil = System.currentTimeMillis() + Processor.Configuration.KEY_COOLDOWN * 1000L;
+            bucket.Tokens = 0;
+        }
+    }
+
+    private static int Capacity() {
+        return Math.max(1, Math.min(Processor.Configuration.KEY_BURST, Processor.Configuration.KEY_REQUESTS_PER_MINUTE - 1));
+    }
+
+    private static double RefillPerMs() {
+        return Math.max(1, Processor.Configuration.KEY_REQUESTS_PER_MINUTE - Capacity()) / 60000.0;
+    }
+
+    /**
+     * Takes a token from the next key that has one, round-robin.
+     */
+    private String Take(long now) {
+        double perMs = RefillPerMs();
+        for (int i = 0; i < Order.size(); i++)
+        {
+            Bucket bucket = Order.get((Next + i) % Order.size());
+            if (bucket.CooldownUntil > now)
+                continue;
+
+            Refill(bucket, now, perMs);
+            if (bucket.Tokens >= 1)
+            {
+                bucket.Tokens--;
+                Next = (Next + i + 1) % Order.size();
+                return bucket.Key;
+            }
+        }
+
+        return null;
+    }
+
+    private int Spare(long now, int reserve, long until) {
+        double perMs = RefillPerMs();
+        double capacity = Capacity();
+        double projected = 0;
+        double overflow = 0;
+
+        for (Bucket bucket : Order)
+        {
+            if (bucket.CooldownUntil > until)
+                continue;
+
+            // A benched key starts refilling from empty once its cooldown is over.
+            double tokens = 0;
+            if (bucket.CooldownUntil <= now)
+            {
+                Refill(bucket, now, perMs);
+                tokens = bucket.Tokens;
+            }
+
+            long from = Math.max(now, bucket.CooldownUntil);
+            double filled = tokens + Math.max(0, until - from) * perMs;
+            projected += Math.min(capacity, filled);
+
+            // Refill that wouldn't fit in a full bucket is free to spend now.
+            overflow += Math.max(0, filled - capacity);
+        }
+
+        return (int)Math.floor(overflow + projected) - reserve;
+    }
+
+    /**
+     * @return How long until any key has a token again, after its refill or its cooldown.
+     */
+    private long NextToken(long now) {
+        double perMs = RefillPerMs();
+        long wait = Long.MAX_VALUE;
+        for (Bucket bucket : Order)
+        {
+            if (bucket.CooldownUntil > now)
+                wait = Math.min(wait, bucket.CooldownUntil - now);
+            else
+                wait = Math.min(wait, (long)Math.ceil((1 - bucket.Tokens) / perMs));
+        }
+
+        return wait;
+    }
+
+    private void Refill(Bucket bucket, long now, double perMs) {
+        double capacity = Capacity();
+        bucket.Tokens = Math.min(capacity, bucket.Tokens + (now - bucket.LastRefill) * perMs);
+        bucket.LastRefill = now;
+    }
+
+    /**
+     * Picks up keys added or removed through the key command or a config reload, keeping the
+     * state of keys that stayed.
+     */
+    private void Sync(long now) {
+        List<String> keys = Processor.Configuration.API_KEYS;
+        if (keys.equals(Keys))
+            return;
+
+        Keys = new ArrayList<>(keys);
+        Order = new ArrayList<>(Keys.size());
+
+        for (String key : Keys)
+        {
+            Bucket bucket = Buckets.get(key);
+            if (bucket == null)
+            {
+                bucket = new Bucket(key, Capacity(), now);
+                Buckets.put(key, bucket);
+            }
+
+            if (!Order.contains(bucket))
+                Order.add(bucket);
+        }
+
+        Buckets.keySet().retainAll(Keys);
+        Next = 0;
+    }
+}
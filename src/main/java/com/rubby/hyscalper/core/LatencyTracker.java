@@ -0,0 +1,41 @@
+package com.rubby.hyscalper.core;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent page requests to answer percentile queries.
+ */
+public class LatencyTracker {
+    private final long[] Samples;
+    private int Count = 0;
+    private int Next = 0;
+
+    public LatencyTracker(int window) {
+        this.Samples = new long[window];
+    }
+
+    public synchronized void Record(long latency) {
+        Samples[Next] = latency;
+        Next = (Next + 1) % Samples.length;
+        Count = Math.min(Count + 1, Samples.length);
+    }
+
+    public synchronized int Size() {
+        return Count;
+    }
+
+    /**
+     * @param percentile Between 0 and 1.
+     * @return The latency below which that share of the recorded requests completed, or -1 if nothing was recorded yet.
+     */
+    public synchronized long Percentile(double percentile) {
+        if (Count == 0)
+            return -1;
+
+        long[] sorted = Arrays.copyOf(Samples, Count);
+        Arrays.sort(sorted);
+
+        int index = (int)Math.ceil(percentile * Count) - 1;
+        return sorted[Math.max(0, Math.min(Count - 1, index))];
+    }
+}
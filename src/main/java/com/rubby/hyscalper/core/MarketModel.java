@@ -0,0 +1,263 @@
+package com.rubby.hyscalper.core;
+
+import com.rubby.hyscalper.interfaces.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The auction house as of the last scan, kept between scans and keyed by auction uuid.
+ * Each snapshot is applied as a delta: listings we haven't seen are grouped (and their NBT
+ * decoded) once, listings that disappeared are dropped, and only the groups touched by either
+ * are reported back for re-evaluation. Every group is an {@link OrderBook}, so a dirty group's
+ * prices are read off the top of its book instead of recomputed.
+ * <p>
+ * Most new listings are priced well above their item's two lowest prices and can't change
+ * them, so a new listing whose cheap provisional key has only ever resolved to one group, and
+ * that is priced above the group's second-lowest, is added to it undecoded. That only happens
+ * in groups that reach MIN_VOLUME with decoded listings alone, and such a listing isn't counted
+ * in the volume. It is decoded once it moves into the two lowest prices, or once the group
+ * needs it to reach MIN_VOLUME.
+ * <p>
+ * Group keys depend on the configuration, so a model is only valid for the configuration it
+ * was built with.
+ */
+public class MarketModel {
+    public interface Grouping {
+        /**
+         * @return A key that is cheap to compute without decoding the item, usually but not
+         * always resolving to a single group.
+         */
+        String ProvisionalKey(AuctionColumns auctions, int index);
+
+        /**
+         * @return The {@link ItemKeys} id of the group the listing at {@code index} belongs to, or -1 if it is ignored.
+         */
+        int GroupKey(AuctionColumns auctions, int index) throws IOException;
+    }
+
+    // Below this many listings a grouping task runs on its own thread instead of splitting further.
+    private static final int GROUPING_BATCH = 256;
+
+    /**
+     * Groups a range of new listings, writing each key into the listing's own slot so the tasks
+     * share nothing but the key column.
+     */
+    private static class GroupingTask extends RecursiveAction {
+        private final AuctionColumns Auctions;
+        private final int[] Indexes;
+        private final Grouping Grouping;
+        private final int From;
+        private final int To;
+
+        private GroupingTask(AuctionColumns auctions, int[] indexes, Grouping grouping, int from, int to) {
+            this.Auctions = auctions;
+            this.Indexes = indexes;
+            this.Grouping = grouping;
+            this.From = from;
+            this.To = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (To - From <= GROUPING_BATCH)
+            {
+                for (int i = From; i < To; i++)
+                {
+                    int index = Indexes[i];
+                    int key = -1;
+
+                    // One listing that can't be decoded is ignored, it mustn't hold back the whole snapshot.
+                    // It stays in the model as ignored, so it is only reported the first time.
+                    try {
+                        key = Grouping.GroupKey(Auctions, index);
+                    }
+                    catch (IOException e) {
+                        new IOException("Ignoring auction " + Auctions.Id(index), e).printStackTrace();
+                    }
+
+                    Auctions.SetKey(index, key);
+                }
+                return;
+            }
+
+            int middle = (From + To) >>> 1;
+            invokeAll(new GroupingTask(Auctions, Indexes, Grouping, From, middle),
+                    new GroupingTask(Auctions, Indexes, Grouping, middle, To));
+        }
+    }
+
+    private final Configuration Config;
+    // Group of every listing by uuid, -1 for listings that are ignored.
+    private final Map<AuctionId, Integer> Listings = new HashMap<>();
+    // Order book of every group, indexed by group id, null for groups that are empty.
+    private final List<OrderBook> Groups = new ArrayList<>();
+    // Group every provisional key resolved to so far, MIXED once it resolved to more than one.
+    private final Map<String, Integer> Provisional = new HashMap<>();
+    private static final int MIXED = -2;
+
+    public MarketModel(Configuration config) {
+        this.Config = config;
+    }
+
+    public boolean IsFor(Configuration config) {
+        return Config == config;
+    }
+
+    public boolean Contains(AuctionId id) {
+        return Listings.containsKey(id);
+    }
+
+    public int Size() {
+        return Listings.size();
+    }
+
+    /**
+     * @return The listings currently in a group, or null if the group is empty.
+     */
+    public OrderBook GetGroup(int group) {
+        return group < Groups.size() ? Groups.get(group) : null;
+    }
+
+    /**
+     * Brings the model up to date with a full snapshot of the auction house, in two phases.
+     * First every new listing is looked up by its provisional key, and if that key always
+     * resolved to the same group and the listing is priced above that group's second-lowest
+     * price, it goes into the group's book deferred, without being decoded. The remaining
+     * listings are then decoded and grouped in parallel, {@code grouping} must be safe to call
+     * from several threads. A listing that fails to decode is kept as ignored.
+     *
+     * @return The groups that gained or lost listings.
+     */
+    public BitSet Apply(AuctionColumns snapshot, Grouping grouping) {
+        BitSet dirty = new BitSet();
+        AuctionIdSet present = new AuctionIdSet(snapshot.Size());
+        BitSet duplicates = new BitSet();
+
+        // Pages can shift while they are fetched, so the same listing may show up twice.
+        for (int i = 0; i < snapshot.Size(); i++)
+        {
+            if (!present.Add(snapshot.IdHigh(i), snapshot.IdLow(i)))
+                duplicates.set(i);
+        }
+
+        Iterator<Map.Entry<AuctionId, Integer>> listings = Listings.entrySet().iterator();
+        while (listings.hasNext())
+        {
+            Map.Entry<AuctionId, Integer> entry = listings.next();
+            AuctionId id = entry.getKey();
+            if (present.Contains(id.High, id.Low))
+                continue;
+
+            listings.remove();
+
+            int group = entry.getValue();
+            if (group >= 0)
+            {
+                OrderBook book = Groups.get(group);
+                book.Remove(id);
+                if (book.Size() == 0)
+                    Groups.set(group, null);
+
+                dirty.set(group);
+            }
+        }
+
+        // Deferred listings that moved up into the two lowest prices, or that a group now needs to
+        // reach MIN_VOLUME, are taken out again. They come back below as new listings and get
+        // decoded this time.
+        for (int group = dirty.nextSetBit(0); group >= 0; group = dirty.nextSetBit(group + 1))
+        {
+            OrderBook book = Groups.get(group);
+            if (book == null)
+                continue;
+
+            AuctionId id;
+            while ((id = book.TakeDeferred(Config.MIN_VOLUME)) != null)
+                Listings.remove(id);
+
+            if (book.Size() == 0)
+                Groups.set(group, null);
+        }
+
+        int[] candidates = new int[snapshot.Size()];
+        String[] provisionalKeys = new String[snapshot.Size()];
+        int candidateCount = 0;
+
+        for (int i = 0; i < snapshot.Size(); i++)
+        {
+            if (duplicates.get(i))
+                continue;
+
+            AuctionId id = snapshot.Id(i);
+            if (Listings.containsKey(id))
+                continue;
+
+            String provisionalKey = grouping.ProvisionalKey(snapshot, i);
+            Integer group = Provisional.get(provisionalKey);
+            OrderBook book = group == null || group < 0 ? null : GetGroup(group);
+
+            // Only groups that already reach the volume threshold on their own take deferred
+            // listings, the threshold must not depend on where a guessed listing really belongs.
+            if (book != null && book.Confirmed() >= Math.max(2, Config.MIN_VOLUME) && snapshot.Price(i) > book.SecondLowest())
+            {
+                book.AddDeferred(snapshot.Price(i), id);
+                Listings.put(id, group);
+                dirty.set(group);
+                continue;
+            }
+
+            provisionalKeys[candidateCount] = provisionalKey;
+            candidates[candidateCount++] = i;
+        }
+
+        // Decoding the candidates is most of the work, spread it over every core.
+        ForkJoinPool.commonPool().invoke(new GroupingTask(snapshot, candidates, grouping, 0, candidateCount));
+
+        for (int i = 0; i < candidateCount; i++)
+        {
+            int index = candidates[i];
+            AuctionId id = snapshot.Id(index);
+            int group = snapshot.Key(index);
+            Listings.put(id, group);
+            Learn(provisionalKeys[i], group);
+
+            if (group >= 0)
+            {
+                while (Groups.size() <= group)
+                    Groups.add(null);
+
+                OrderBook book = Groups.get(group);
+                if (book == null)
+                {
+                    book = new OrderBook();
+                    Groups.set(group, book);
+                }
+
+                book.Add(snapshot.Price(index), id);
+                dirty.set(group);
+            }
+        }
+
+        return dirty;
+    }
+
+    /**
+     * Records the group a provisional key resolved to, a key that resolved to different groups
+     * is never used to skip a decode again.
+     */
+    private void Learn(String provisionalKey, int group) {
+        Integer known = Provisional.get(provisionalKey);
+        if (known == null)
+            Provisional.put(provisionalKey, group);
+        else if (known != group)
+            Provisional.put(provisionalKey, MIXED);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rubby.hyscalper.core;
+
+import com.rubby.hyscalper.helpers.Utils;
+import com.rubby.hyscalper.interfaces.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Group names by (item_name, tier, modifier). There are only a few thousand distinct names
+ * against tens of thousands of auctions, so after the first scan normalizing a name is a hash
+ * lookup. Lookups don't lock, so the grouping workers can share the cache, and a name missing
+ * from it is normalized outside of any lock. Once more than {@code capacity} names are cached it
+ * is emptied and fills up again. The cache is only valid for the configuration it was built
+ * with, since the ignore flags change what a name normalizes to.
+ */
+public class NameCache {
+    private static final class Key {
+        private final String ItemName;
+        private final String Tier;
+        private final String Modifier;
+        private final int Hash;
+
+        private Key(String itemName, String tier, String modifier) {
+            this.ItemName = itemName;
+            this.Tier = tier;
+            this.Modifier = modifier;
+
+            int hash = itemName.hashCode();
+            hash = hash * 31 + tier.hashCode();
+            hash = hash * 31 + (modifier == null ? 0 : modifier.hashCode());
+            this.Hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key)o;
+            return Hash == key.Hash &&
+                    ItemName.equals(key.ItemName) &&
+                    Tier.equals(key.Tier) &&
+                    (Modifier == null ? key.Modifier == null : Modifier.equals(key.Modifier));
+        }
+
+        @Override
+        public int hashCode() {
+            return Hash;
+        }
+    }
+
+    private final Configuration Config;
+    private final int Capacity;
+    private final Map<Key, String> Names;
+
+    public NameCache(Configuration config, int capacity) {
+        this.Config = config;
+        this.Capacity = capacity;
+        this.Names = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    public boolean IsFor(Configuration config) {
+        return Config == config;
+    }
+
+    /**
+     * @param modifier The reforge to strip from the name, or null if there is none to strip.
+     * @return The name the auction is grouped and priced under.
+     */
+    public String Get(String itemName, String tier, String modifier) {
+        Key key = new Key(itemName, tier, modifier);
+        String name = Names.get(key);
+        if (name == null)
+        {
+            // Two threads may normalize the same name, they get the same result anyway.
+            name = Normalize(itemName, tier, modifier);
+            if (Names.size() >= Capacity)
+                Names.clear();
+
+            Names.put(key, name);
+        }
+
+        return name;
+    }
+
+    private String Normalize(String itemName, String tier, String modifier) {
+        String name = String.format("%s [%s]", Utils.PureName(itemName, Config), tier.charAt(0));
+
+        if (modifier != null && !modifier.isEmpty())
+        {
+            // The prefix goes through the same normalization as the name, "Pitchin'" is "Pitchin" with IGNORE_STARS.
+            String reforge = Utils.PureName(ReforgeDictionary.Prefix(modifier), Config);
+            name = StripPrefix(name, reforge);
+        }
+
+        return name;
+    }
+
+    /**
+     * Removes the reforge as a whole word, normally the start of the name but it can come after
+     * a symbol when IGNORE_STARS is off.
+     */
+    private static String StripPrefix(String name, String reforge) {
+        if (reforge.isEmpty())
+            return name;
+
+        if (name.startsWith(reforge) && name.length() > reforge.length() && name.charAt(reforge.length()) == ' ')
+            return name.substring(reforge.length() + 1);
+
+        int index = name.indexOf(' ' + reforge + ' ');
+        if (index < 0)
+            return name;
+
+        return name.substring(0, index) + name.substring(index + reforge.length() + 1);
+    }
+}
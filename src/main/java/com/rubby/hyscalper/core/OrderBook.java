@@ -0,0 +1,250 @@
+package com.rubby.hyscalper.core;
+
+import java.util.Arrays;
+
+/**
+ * The BIN listings of one item as a min-heap of (price, auction id), kept across scans.
+ * Listings that sell or expire are only marked removed, and dead entries are popped once they
+ * reach the top three slots, so the lowest and second-lowest price are always read in O(1) and
+ * every update costs O(log n). When more than half of the heap is dead it is rebuilt.
+ * Ids are stored as pairs of longs and the marks in {@link AuctionIdSet}s, so an entry is no
+ * more than its three primitives.
+ */
+public class OrderBook {
+    private int[] Prices = new int[4];
+    private long[] Ids = new long[8];
+    // Entries in the heap, including removed ones.
+    private int Entries = 0;
+    private final AuctionIdSet Removed = new AuctionIdSet(4);
+    // Listings added without being decoded, priced above the second-lowest when they were added.
+    private final AuctionIdSet Deferred = new AuctionIdSet(4);
+
+    public void Add(int price, AuctionId id) {
+        // A listing that comes back while its removed entry is still in the heap would share one
+        // removal mark with it, so the old entry is taken out first. Relists are rare enough for
+        // the linear search.
+        if (Removed.Remove(id.High, id.Low))
+        {
+            RemoveAt(IndexOf(id.High, id.Low));
+            Normalize();
+        }
+
+        if (Entries == Prices.length)
+        {
+            Prices = Arrays.copyOf(Prices, Entries * 2);
+            Ids = Arrays.copyOf(Ids, Entries * 4);
+        }
+
+        Prices[Entries] = price;
+        Ids[Entries * 2] = id.High;
+        Ids[Entries * 2 + 1] = id.Low;
+        SiftUp(Entries++);
+    }
+
+    /**
+     * Adds a listing whose group was only guessed, it isn't part of {@link #Confirmed()} and has
+     * to be taken out with {@link #TakeDeferred(int)} before its price may be used.
+     */
+    public void AddDeferred(int price, AuctionId id) {
+        Add(price, id);
+        Deferred.Add(id.High, id.Low);
+    }
+
+    /**
+     * Marks a listing that is in the book as removed.
+     */
+    public void Remove(AuctionId id) {
+        Removed.Add(id.High, id.Low);
+        Deferred.Remove(id.High, id.Low);
+
+        if (Removed.Size() * 2 > Entries)
+            Compact();
+        else
+            Normalize();
+    }
+
+    public int Size() {
+        return Entries - Removed.Size();
+    }
+
+    /**
+     * @return The listings whose group is known, the volume the book can vouch for.
+     */
+    public int Confirmed() {
+        return Size() - Deferred.Size();
+    }
+
+    /**
+     * @return The lowest price, must not be called on an empty book.
+     */
+    public int Lowest() {
+        return Prices[0];
+    }
+
+    public AuctionId LowestId() {
+        return new AuctionId(Ids[0], Ids[1]);
+    }
+
+    /**
+     * @return The second-lowest price, or {@link Integer#MAX_VALUE} if there is only one listing.
+     */
+    public int SecondLowest() {
+        int second = Integer.MAX_VALUE;
+        if (Entries > 1)
+            second = Prices[1];
+        if (Entries > 2)
+            second = Math.min(second, Prices[2]);
+
+        return second;
+    }
+
+    /**
+     * @param minConfirmed Below this many confirmed listings any deferred listing is taken, so a
+     * volume threshold is never decided by guessed listings.
+     * @return A deferred listing that moved up to the lowest or second-lowest price, after taking
+     * it out of the book, or null if the two lowest prices are both confirmed.
+     */
+    public AuctionId TakeDeferred(int minConfirmed) {
+        if (Deferred.Size() == 0 || Entries == 0)
+            return null;
+
+        int slot = -1;
+        if (Confirmed() < minConfirmed)
+        {
+            // Only live listings are marked deferred, and one is usually near the top.
+            for (int i = 0; i < Entries && slot < 0; i++)
+            {
+                if (IsDeferred(i))
+                    slot = i;
+            }
+        }
+        else if (IsDeferred(0))
+            slot = 0;
+        else if (Entries > 2 && Prices[2] < Prices[1])
+            slot = IsDeferred(2) ? 2 : -1;
+        else if (Entries > 1)
+            slot = IsDeferred(1) ? 1 : -1;
+
+        if (slot < 0)
+            return null;
+
+        // The slot is known, so the entry is taken out right away instead of being marked.
+        AuctionId id = new AuctionId(Ids[slot * 2], Ids[slot * 2 + 1]);
+        Deferred.Remove(id.High, id.Low);
+        RemoveAt(slot);
+        Normalize();
+        return id;
+    }
+
+    private boolean IsDeferred(int slot) {
+        return Deferred.Contains(Ids[slot * 2], Ids[slot * 2 + 1]);
+    }
+
+    /**
+     * Pops removed entries off the top three slots, the only ones the getters read.
+     */
+    private void Normalize() {
+        boolean changed = true;
+        while (changed && Removed.Size() > 0)
+        {
+            changed = false;
+            for (int i = 0; i < 3 && i < Entries; i++)
+            {
+                if (Removed.Remove(Ids[i * 2], Ids[i * 2 + 1]))
+                {
+                    RemoveAt(i);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void Compact() {
+        int live = 0;
+        for (int i = 0; i < Entries; i++)
+        {
+            if (Removed.Contains(Ids[i * 2], Ids[i * 2 + 1]))
+                continue;
+
+            Prices[live] = Prices[i];
+            Ids[live * 2] = Ids[i * 2];
+            Ids[live * 2 + 1] = Ids[i * 2 + 1];
+            live++;
+        }
+
+        Entries = live;
+        Removed.Clear();
+
+        for (int i = Entries / 2 - 1; i >= 0; i--)
+            SiftDown(i);
+    }
+
+    private int IndexOf(long high, long low) {
+        for (int i = 0; i < Entries; i++)
+        {
+            if (Ids[i * 2] == high && Ids[i * 2 + 1] == low)
+                return i;
+        }
+
+        throw new IllegalStateException("Removed listing " + new AuctionId(high, low) + " isn't in the book");
+    }
+
+    private void RemoveAt(int index) {
+        Entries--;
+        if (index != Entries)
+        {
+            Prices[index] = Prices[Entries];
+            Ids[index * 2] = Ids[Entries * 2];
+            Ids[index * 2 + 1] = Ids[Entries * 2 + 1];
+            SiftDown(index);
+            SiftUp(index);
+        }
+    }
+
+    private void SiftUp(int index) {
+        while (index > 0)
+        {
+            int parent = (index - 1) / 2;
+            if (Prices[parent] <= Prices[index])
+                return;
+
+            Swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void SiftDown(int index) {
+        while (true)
+        {
+            int smallest = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+
+            if (left < Entries && Prices[left] < Prices[smallest])
+                smallest = left;
+            if (right < Entries && Prices[right] < Prices[smallest])
+                smallest = right;
+
+            if (smallest == index)
+                return;
+
+            Swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void Swap(int a, int b) {
+        int price = Prices[a];
+        Prices[a] = Prices[b];
+        Prices[b] = price;
+
+        long high = Ids[a * 2];
+        Ids[a * 2] = Ids[b * 2];
+        Ids[b * 2] = high;
+
+        long low = Ids[a * 2 + 1];
+        Ids[a * 2 + 1] = Ids[b * 2 + 1];
+        Ids[b * 2 + 1] = low;
+    }
+}
@@ -0,0 +1,73 @@
+package com.rubby.hyscalper.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects the auctions of a single scan, one slot per page index.
+ * Page workers write only to their own slot, so they never contend with each other,
+ * and the slots are merged once, in page order, after the last page was published.
+ */
+public class PageResults {
+    private final AtomicReferenceArray<AuctionColumns> Slots;
+    private final CountDownLatch Remaining;
+
+    public PageResults(int pages) {
+        this.Slots = new AtomicReferenceArray<>(pages);
+        this.Remaining = new CountDownLatch(pages);
+    }
+
+    /**
+     * Publishes the result of a page, null marks a page that failed to download.
+     * Must be called exactly once per page.
+     */
+    public void Publish(int page, AuctionColumns auctions) {
+        Slots.lazySet(page, auctions);
+        Remaining.countDown();
+    }
+
+    private void Await() throws InterruptedException {
+        Remaining.await();
+    }
+
+    /**
+     * @return How many pages failed to download, a snapshot is only complete when none did.
+     */
+    public int Missing() throws InterruptedException {
+        Await();
+
+        int missing = 0;
+        for (int i = 0; i < Slots.length(); i++)
+        {
+            if (Slots.get(i) == null)
+                missing++;
+        }
+
+        return missing;
+    }
+
+    /**
+     * Merges the pages that were published, skipping failed ones.
+     */
+    public AuctionColumns Merge() throws InterruptedException {
+        Await();
+
+        int total = 0;
+        for (int i = 0; i < Slots.length(); i++)
+        {
+            AuctionColumns page = Slots.get(i);
+            if (page != null)
+                total += page.Size();
+        }
+
+        AuctionColumns merged = new AuctionColumns(total);
+        for (int i = 0; i < Slots.length(); i++)
+        {
+            AuctionColumns page = Slots.get(i);
+            if (page != null)
+                merged.AddAll(page);
+        }
+
+        return merged;
+    }
+}
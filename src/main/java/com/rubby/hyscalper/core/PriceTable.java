@@ -0,0 +1,76 @@
+package com.rubby.hyscalper.core;
+
+import java.util.Arrays;
+
+/**
+ * Lowest BIN prices per item as of the last full scan, kept between scans so the sniper can
+ * price new listings without rescanning every page. Items are indexed by their {@link ItemKeys}
+ * id, an item with a volume of 0 has no entry.
+ */
+public class PriceTable {
+    private int[] Lowest;
+    private int[] Next;
+    private int[] Volume;
+
+    public PriceTable(int expectedItems) {
+        int capacity = Math.max(16, expectedItems);
+        this.Lowest = new int[capacity];
+        this.Next = new int[capacity];
+        this.Volume = new int[capacity];
+    }
+
+    public void Remove(int item) {
+        if (item < Volume.length)
+            Volume[item] = 0;
+    }
+
+    public void Put(int item, int lowest, int next, int volume) {
+        EnsureCapacity(item);
+        Lowest[item] = lowest;
+        Next[item] = next;
+        Volume[item] = volume;
+    }
+
+    public int GetVolume(int item) {
+        return item < Volume.length ? Volume[item] : 0;
+    }
+
+    /**
+     * Adds a listing that showed up after the table was built.
+     *
+     * @return The lowest price of the item before this listing, or -1 if the listing didn't undercut it.
+     */
+    public int Offer(int item, int price) {
+        EnsureCapacity(item);
+        if (Volume[item] == 0)
+        {
+            Put(item, price, Integer.MAX_VALUE, 1);
+            return -1;
+        }
+
+        Volume[item]++;
+
+        if (price < Lowest[item])
+        {
+            int previous = Lowest[item];
+            Next[item] = previous;
+            Lowest[item] = price;
+            return previous;
+        }
+
+        if (price < Next[item])
+            Next[item] = price;
+
+        return -1;
+    }
+
+    private void EnsureCapacity(int item) {
+        if (item < Volume.length)
+            return;
+
+        int capacity = Math.max(item + 1, Volume.length * 2);
+        Lowest = Arrays.copyOf(Lowest, capacity);
+        Next = Arrays.copyOf(Next, capacity);
+        Volume = Arrays.copyOf(Volume, capacity);
+    }
+}
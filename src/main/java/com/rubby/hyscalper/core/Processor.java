@@ -1,217 +1,559 @@
 package com.rubby.hyscalper.core;
 
 import com.google.gson.Gson;
-import com.nullicorn.nedit.NBTReader;
-import com.nullicorn.nedit.type.NBTCompound;
-import com.nullicorn.nedit.type.NBTList;
 import com.rubby.hyscalper.helpers.Hit;
 import com.rubby.hyscalper.helpers.Utils;
 import com.rubby.hyscalper.interfaces.Api;
-import com.rubby.hyscalper.interfaces.Auction;
 import com.rubby.hyscalper.interfaces.Configuration;
 import net.minecraft.client.Minecraft;
 import net.minecraft.util.EnumChatFormatting;
-import org.jsoup.Jsoup;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Processor {
     public static boolean ToggleBoolean = false;
     public static Gson Parser = new Gson();
     public static Configuration Configuration;
-    public static final String BaseURL = "http://api.hypixel.net/skyblock/auctions?key=%s&page=";
-    public static String URL;
+    public static final String BaseURL = "https://api.hypixel.net/skyblock/auctions?key=%s&page=";
 
-    private static int CheckedPages;
+    private static final KeyPool Keys = new KeyPool();
+    public static final ConcurrencyLimiter Limiter = new ConcurrencyLimiter();
+    public static final LatencyTracker Latencies = new LatencyTracker(256);
 
-    private static int CurrentKey = 0;
+    // Hedging only kicks in once we know what a normal page latency looks like.
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY = 50;
     private static int Pages = 0;
+    // When the last full scan finished fetching, the pooled connections expire a while after that.
+    private static long LastFetched = 0;
+
+    // Validators of the last snapshot we scanned, used to skip scans of unchanged data.
+    public static long LastUpdated = 0;
+    private static String LastETag;
+    private static String LastModified;
+
+    // Same for the sniper, which only looks at the first pages.
+    private static long SnipeLastUpdated = 0;
+    private static String SnipeETag;
+    private static String SnipeLastModified;
+
+    // Auctions already opened automatically, forgotten after a while so the set doesn't grow all session.
+    private static final AuctionIdSet ShownIds = new AuctionIdSet(64, TimeUnit.HOURS.toMillis(2));
+    private static AuctionFilter Filter;
+    private static NameCache Names;
+    private static final int NAME_CACHE_SIZE = 8192;
+    private static final DecodeCache Decoded = new DecodeCache(200000);
+    private static final MarketModel.Grouping Grouping = new MarketModel.Grouping() {
+        @Override
+        public String ProvisionalKey(AuctionColumns auctions, int index) {
+            return GetNames().Get(auctions.ItemName(index), auctions.Tier(index), null);
+        }
 
-    private static ArrayList<Auction> Auctions = new ArrayList<>();
-    private static ArrayList<String> ShownUuids = new ArrayList<>();
-    private static Map<String, List<Auction>> SortedAuctions = new HashMap<>();
+        @Override
+        public int GroupKey(AuctionColumns auctions, int index) throws IOException {
+            return Processor.GroupKey(auctions, index);
+        }
+    };
+    private static final Set<String> GENERIC_ITEM_IDS = new HashSet<>(Arrays.asList(
+            "PET", "RUNE", "UNIQUE_RUNE", "ENCHANTED_BOOK", "POTION", "NEW_YEAR_CAKE"));
+
+    // Kept between scans, each full scan only applies what changed since the last one.
+    private static MarketModel Market;
+    // Current hit of every group, indexed by group id, null for groups without one.
+    private static List<Hit> GroupHits = new ArrayList<>();
+
+    // Updated by each full scan, the sniper prices new listings against it.
+    private static PriceTable Prices = new PriceTable(0);
+    private static final AuctionIdSet SnipedIds = new AuctionIdSet(1024);
+    private static BitSet SnipedGroups = new BitSet();
+    // Whether the sniper got budget, or was refused it, since the last full scan.
+    private static boolean SniperPolled = false;
+    private static boolean SniperWaiting = false;
+    private static boolean SniperWarned = false;
+
+    private static ThreadPoolExecutor FetchExecutor;
+    private static final ScheduledExecutorService HedgeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HyScalper Hedge Timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static ThreadPoolExecutor GetFetchExecutor() {
+        // The limiter decides how many of these actually have a request in flight.
+        int threads = ConcurrencyLimiter.MaxThreads();
+
+        if (FetchExecutor == null)
+        {
+            AtomicInteger threadNumber = new AtomicInteger();
+            FetchExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "HyScalper Fetch #" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        else if (FetchExecutor.getMaximumPoolSize() != threads)
+        {
+            // Config was reloaded with a different MAX_THREADS, resize the pool in place.
+            if (threads > FetchExecutor.getMaximumPoolSize()) {
+                FetchExecutor.setMaximumPoolSize(threads);
+                FetchExecutor.setCorePoolSize(threads);
+            }
+            else {
+                FetchExecutor.setCorePoolSize(threads);
+                FetchExecutor.setMaximumPoolSize(threads);
+            }
+        }
 
-    public static void Process() throws InterruptedException, IOException {
-        Pages = 0;
-        CheckedPages = 0;
-        Auctions = new ArrayList<>();
-        SortedAuctions = new HashMap<>();
+        return FetchExecutor;
+    }
 
-        URL = String.format(BaseURL, Configuration.API_KEYS.get(CurrentKey));
+    /**
+     * Scans the auction house once.
+     *
+     * @return false if the snapshot hasn't changed since the last scan, or some of its pages failed
+     * to download, in which case nothing was applied.
+     */
+    public static boolean Process() throws InterruptedException, IOException {
+        // Page 0 doubles as the probe, it tells us whether the snapshot changed and how many pages
+        // there are, and its auctions are kept instead of fetched twice.
+        Api firstPage;
+        String etag;
+        String lastModified;
+        try (ApiClient.Response probe = Probe(Keys.Acquire(), LastETag, LastModified)) {
+            if (probe.IsNotModified())
+                return false;
+
+            firstPage = AuctionParser.Parse(probe.Body, GetFilter(), LastUpdated, Decoded);
+            if (firstPage.auctions == null)
+                return false;
+
+            etag = probe.ETag;
+            lastModified = probe.LastModified;
+        }
 
-        String data = Jsoup.connect(URL + "0").ignoreContentType(true).get().text();
-        Api parsed = Parser.fromJson(data, Api.class);
-        if (parsed != null)
-            Pages = parsed.totalPages;
+        Pages = Math.max(firstPage.totalPages, 1);
 
-        for (int i = 0; i <= Configuration.THREAD_COUNT; i++)
-        {
-            double perThread = Math.floor((double)Pages / Configuration.THREAD_COUNT);
+        // Only warm connections the keep-alive pool has already dropped, not on every poll.
+        ThreadPoolExecutor executor = GetFetchExecutor();
+        if (System.currentTimeMillis() - LastFetched > ApiClient.KEEP_ALIVE_TIME)
+            ApiClient.Warm(BaseURL, executor.getMaximumPoolSize(), executor);
 
-            double min = i * perThread;
-            double max = min + perThread;
-            if (i == Configuration.THREAD_COUNT)
-                max = Pages;
+        PageResults results = new PageResults(Pages);
+        results.Publish(0, firstPage.auctions);
+        FetchPages(1, Pages, results);
 
-            Thread thread = new Thread(ProcessPage((int)min, (int)max));
-            thread.start();
-        }
+        // Blocks only until the last page lands, no polling.
+        int missing = results.Missing();
+        LastFetched = System.currentTimeMillis();
 
-        while (CheckedPages < Pages)
+        // Listings on a missing page would look sold, so a partial snapshot isn't applied at all.
+        // The validators stay on the last complete one and the next poll fetches it again.
+        if (missing > 0)
         {
-            Thread.sleep(200);
+            Utils.SendMessage(String.format("%s%s of %s pages failed, scanning again", EnumChatFormatting.RED, missing, Pages));
+            return false;
         }
 
-        for (Auction auction : Auctions) {
-            String clearName = String.format("%s [%s]", Utils.PureName(auction.item_name, Configuration), auction.tier.charAt(0));
+        LastETag = etag;
+        LastModified = lastModified;
+        LastUpdated = firstPage.lastUpdated;
 
-            NBTCompound baseCompound = NBTReader.readBase64(auction.item_bytes);
-            NBTList baseList = baseCompound.getList("i");
-            NBTCompound listCompound = baseList.getCompound(0);
-            int count = listCompound.getInt("Count", 1);
+        AuctionColumns auctions = results.Merge();
 
-            NBTCompound atr = listCompound.getCompound("tag").getCompound("ExtraAttributes");
+        if (Market == null || !Market.IsFor(Configuration))
+        {
+            Market = new MarketModel(Configuration);
+            GroupHits = new ArrayList<>();
+            Prices = new PriceTable(0);
+        }
 
-            if (count > 1 && Configuration.IGNORE_COUNT)
-                continue;
+        // Groups the sniper wrote into are re-evaluated too, to undo listings that sold since.
+        BitSet dirty = Market.Apply(auctions, Grouping);
+        Decoded.Retain(Market::Contains);
+        dirty.or(SnipedGroups);
 
-            if (atr.getString("rarity_upgrades") != null && Configuration.IGNORE_RECOMBOBULATOR) {
-                if (atr.getInt("rarity_upgrades", 0) > 0)
-                    continue;
-            }
+        for (int group = dirty.nextSetBit(0); group >= 0; group = dirty.nextSetBit(group + 1))
+            Evaluate(group);
 
-            if (atr.getString("modifier") != null && Configuration.IGNORE_REFORGES) {
-                String modifier = atr.getString("modifier");
-                String name = modifier.substring(0, 1).toUpperCase() + modifier.substring(1);
-                clearName = clearName.replaceAll(name + " ", "");
-            }
+        SnipedIds.Clear();
+        SnipedGroups.clear();
+
+        // The sniper pauses before each full scan to leave it the budget, but a whole interval
+        // without a single poll means it can't run at all, say so once.
+        if (SniperWaiting && !SniperPolled && !SniperWarned)
+        {
+            Utils.SendMessage(String.format("%sThe sniper has no API budget left over from full scans, add keys or raise FULL_SCAN_INTERVAL.",
+                    EnumChatFormatting.YELLOW));
+            SniperWarned = true;
+        }
+        else if (SniperPolled)
+        {
+            SniperWarned = false;
+        }
 
-            if (!SortedAuctions.containsKey(clearName))
-                SortedAuctions.put(clearName, new ArrayList<>());
+        SniperPolled = false;
+        SniperWaiting = false;
 
-            SortedAuctions.get(clearName).add(auction);
+        List<Hit> Hits = new ArrayList<>();
+        for (Hit hit : GroupHits)
+        {
+            if (hit != null)
+                Hits.add(hit);
         }
 
-        for (Map.Entry<String, List<Auction>> entry : SortedAuctions.entrySet())
+        Alert(Hits);
+
+        Utils.SendMessage(String.format("%s<-- %sWaiting%s for the next update %s-->", EnumChatFormatting.WHITE,
+                EnumChatFormatting.GOLD, EnumChatFormatting.AQUA, EnumChatFormatting.WHITE));
+
+        return true;
+    }
+
+    /**
+     * Polls only the first {@code SNIPER_PAGES} pages, where new listings show up, and prices the
+     * listings we haven't seen yet against the table of the last full scan.
+     *
+     * @param nextFullScan When the next full scan is due, the sniper leaves it the keys' budget.
+     * @return false if page 0 hasn't changed since the last poll, or there was no budget to poll.
+     */
+    public static boolean Snipe(long nextFullScan) throws InterruptedException, IOException {
+        // Nothing to price against before the first full scan.
+        if (Market == null || Market.Size() == 0)
+            return false;
+
+        // The sniper only spends what the next full scan won't need, one token per page.
+        String key = Keys.TryAcquire(Pages, nextFullScan);
+        if (key == null)
         {
-            List<Auction> sortedList = SortedAuctions.get(entry.getKey());
-            sortedList.sort(Comparator.comparingInt(o -> o.starting_bid));
+            SniperWaiting = true;
+            return false;
+        }
+
+        SniperPolled = true;
+
+        Api firstPage;
+        try (ApiClient.Response probe = Probe(key, SnipeETag, SnipeLastModified)) {
+            if (probe.IsNotModified())
+                return false;
 
-            SortedAuctions.replace(entry.getKey(), sortedList);
+            firstPage = AuctionParser.Parse(probe.Body, GetFilter(), SnipeLastUpdated, Decoded);
+            if (firstPage.auctions == null)
+                return false;
+
+            SnipeETag = probe.ETag;
+            SnipeLastModified = probe.LastModified;
         }
 
+        SnipeLastUpdated = firstPage.lastUpdated;
+
+        int pages = Math.max(1, Math.min(Configuration.SNIPER_PAGES, firstPage.totalPages));
+        pages = Math.min(pages, 1 + Math.max(0, Keys.Spare(Pages, nextFullScan)));
+        PageResults results = new PageResults(pages);
+        results.Publish(0, firstPage.auctions);
+        FetchPages(1, pages, results);
+
         List<Hit> Hits = new ArrayList<>();
 
-        for (Map.Entry<String, List<Auction>> entry : SortedAuctions.entrySet()) {
-            if (entry.getValue().size() < Configuration.MIN_VOLUME)
+        AuctionColumns auctions = results.Merge();
+        for (int i = 0; i < auctions.Size(); i++) {
+            AuctionId id = auctions.Id(i);
+            if (Market.Contains(id) || !SnipedIds.Add(id))
                 continue;
 
-            Auction flipAuction = entry.getValue().get(0);
-            Auction nextAuction = entry.getValue().get(1);
+            int group;
+            try {
+                group = GroupKey(auctions, i);
+            }
+            catch (IOException e) {
+                // The next full scan reports it when it adds the listing to the market as ignored.
+                continue;
+            }
 
-            int profit = nextAuction.starting_bid - flipAuction.starting_bid;
-            double percent = (double)nextAuction.starting_bid / (double)flipAuction.starting_bid * 100;
-            DecimalFormat dec = new DecimalFormat("#0.00");
+            if (group < 0)
+                continue;
 
-            if (flipAuction.starting_bid > Configuration.MIN_PRICE &&
-                    flipAuction.starting_bid < Configuration.MAX_PRICE &&
-                    profit > Configuration.MIN_PROFIT)
-            {
-                String name = entry.getKey();
-                String inMoney = Utils.InMoney(flipAuction.starting_bid, 0);
-                String profitInMoney = Utils.InMoney(profit, 0);
-
-                Hits.add(new Hit(
-                        String.format("-> %s | Price: %s | Profit: %s (%s", name, inMoney, profitInMoney, dec.format(percent)) + "%)",
-                        Configuration.SORT_BY_PROFIT ? profit : percent,
-                        flipAuction.uuid
-                ));
-            }
+            SnipedGroups.set(group);
+            int price = auctions.Price(i);
+            int volume = Prices.GetVolume(group);
+            int lowest = Prices.Offer(group, price);
+
+            // The undercut listing becomes the one to compare against.
+            if (lowest < 0 || volume < Configuration.MIN_VOLUME)
+                continue;
+
+            Hit hit = CreateHit(ItemKeys.DisplayName(group), price, lowest, id);
+            if (hit != null)
+                Hits.add(hit);
         }
 
-        Hits.sort(Comparator.comparingDouble(h -> h.price));
+        Alert(Hits);
 
-        for (Hit entry : Hits)
+        return true;
+    }
+
+    /**
+     * Re-evaluates a group after it gained or lost listings, updating its prices and hit.
+     */
+    private static void Evaluate(int group) {
+        OrderBook book = Market.GetGroup(group);
+        if (book == null)
         {
-            String cmd = "/viewauction " + entry.id;
+            Prices.Remove(group);
+            SetHit(group, null);
+            return;
+        }
 
-            if (Configuration.AUTO_OPEN && !Configuration.SORT_BY_PROFIT && !ShownUuids.contains(entry.id))
-            {
-                if (entry.price >= Configuration.MIN_AUTO_OPEN_PERCENT)
-                {
-                    Minecraft.getMinecraft().thePlayer.sendChatMessage(cmd);
-                    ShownUuids.add(entry.id);
-                }
-            }
+        // Listings added without decoding might belong to another group, only confirmed ones count.
+        int count = book.Confirmed();
+        Prices.Put(group, book.Lowest(), book.SecondLowest(), count);
 
-            Utils.SendMessage(entry.name, cmd);
+        Hit hit = null;
+        if (count >= Configuration.MIN_VOLUME && count >= 2)
+            hit = CreateHit(ItemKeys.DisplayName(group), book.Lowest(), book.SecondLowest(), book.LowestId());
+
+        SetHit(group, hit);
+    }
+
+    private static void SetHit(int group, Hit hit) {
+        if (group >= GroupHits.size())
+        {
+            if (hit == null)
+                return;
+
+            while (GroupHits.size() <= group)
+                GroupHits.add(null);
         }
 
-        Utils.SendMessage(String.format("%s<-- %sWaiting%s %s seconds %s-->", EnumChatFormatting.WHITE,
-                EnumChatFormatting.GOLD, EnumChatFormatting.AQUA,
-                Configuration.COOLDOWN, EnumChatFormatting.WHITE));
+        GroupHits.set(group, hit);
+    }
+
+    /**
+     * @return The filters of the current configuration, compiled again only when it was reloaded.
+     */
+    private static AuctionFilter GetFilter() {
+        AuctionFilter filter = Filter;
+        if (filter == null || !filter.IsFor(Configuration))
+        {
+            filter = AuctionFilter.Compile(Configuration);
+            Filter = filter;
+        }
 
-        if (Configuration.API_KEYS.size() > 1)
+        return filter;
+    }
+
+    /**
+     * @return The name cache of the current configuration, emptied when it was reloaded.
+     */
+    private static NameCache GetNames() {
+        NameCache names = Names;
+        if (names == null || !names.IsFor(Configuration))
         {
-            CurrentKey++;
-            if (CurrentKey >= Configuration.API_KEYS.size())
-                CurrentKey = 0;
+            names = new NameCache(Configuration, NAME_CACHE_SIZE);
+            Names = names;
         }
 
-        CheckedPages++;
+        return names;
+    }
+
+    private static String PageUrl(String key, int page) {
+        return String.format(BaseURL, key) + page;
+    }
+
+    /**
+     * Conditional request for page 0, with the validators of the snapshot we last saw.
+     */
+    private static ApiClient.Response Probe(String key, String etag, String lastModified) throws IOException {
+        try {
+            return ApiClient.Get(PageUrl(key, 0), etag, lastModified);
+        }
+        catch (ApiClient.StatusException e) {
+            Keys.Report(key, e.Status);
+            throw e;
+        }
+    }
 
+    /**
+     * Fetches pages {@code from} (inclusive) to {@code to} (exclusive) on the fetch pool, each page
+     * with whichever key has budget left. A page that takes longer than the p95 page latency gets
+     * a second, hedged request and whichever of the two answers first is used.
+     */
+    private static void FetchPages(int from, int to, PageResults results) {
+        long hedgeDelay = Configuration.HEDGE_REQUESTS && Latencies.Size() >= MIN_HEDGE_SAMPLES
+                ? Math.max(MIN_HEDGE_DELAY, Latencies.Percentile(0.95))
+                : -1;
+
+        for (int pageNum = from; pageNum < to; pageNum++)
+            FetchPage(pageNum, results, hedgeDelay);
     }
-    private static Runnable ProcessPage(int min, int max) throws IOException {
-        for (int pageNum = min; pageNum < max; pageNum++)
+
+    private static void FetchPage(int page, PageResults results, long hedgeDelay) {
+        AtomicBoolean published = new AtomicBoolean();
+        AtomicInteger attempts = new AtomicInteger(1);
+
+        Runnable hedge = () -> {
+            if (published.get())
+                return;
+
+            attempts.incrementAndGet();
+            GetFetchExecutor().execute(() -> FetchAttempt(page, results, published, attempts, null));
+        };
+
+        // The hedge timer starts once the first request is actually sent, not while it's queued.
+        Runnable onRequest = hedgeDelay <= 0 ? null : () -> HedgeTimer.schedule(hedge, hedgeDelay, TimeUnit.MILLISECONDS);
+
+        GetFetchExecutor().execute(() -> FetchAttempt(page, results, published, attempts, onRequest));
+    }
+
+    private static void FetchAttempt(int page, PageResults results, AtomicBoolean published, AtomicInteger attempts, Runnable onRequest) {
+        AuctionColumns auctions = null;
+        try {
+            auctions = ProcessPageWithRetries(page, onRequest);
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        // The first answer wins, a failure only counts once no other attempt is left to answer.
+        boolean last = attempts.decrementAndGet() == 0;
+        if ((auctions != null || last) && published.compareAndSet(false, true))
+            results.Publish(page, auctions);
+    }
+
+    /**
+     * Retries a page up to {@code PAGE_RETRIES} times, backing off exponentially with jitter so
+     * retries of pages that failed together don't hit the API together again.
+     */
+    private static AuctionColumns ProcessPageWithRetries(int page, Runnable onRequest) throws IOException, InterruptedException {
+        for (int retry = 0; ; retry++)
         {
-            String data = DownloadString(URL + pageNum);
-            Api page = new Gson().fromJson(data, Api.class);
+            try {
+                return ProcessPage(page, retry == 0 ? onRequest : null).auctions;
+            }
+            catch (IOException e) {
+                if (retry >= Configuration.PAGE_RETRIES)
+                    throw e;
+
+                long backoff = (long)Configuration.RETRY_BACKOFF << retry;
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+            }
+        }
+    }
+
+    /**
+     * @return The {@link ItemKeys} id the listing is grouped and priced under, or -1 if its item is ignored.
+     */
+    private static int GroupKey(AuctionColumns auctions, int index) throws IOException {
+        ItemAttributes attributes = Decoded.Get(auctions.Id(index), auctions.ItemBytes(index));
+        String tier = auctions.Tier(index);
+        String itemName = auctions.ItemName(index);
 
-            page.auctions.removeIf(a -> !a.bin);
+        if (attributes.Count > 1 && Configuration.IGNORE_COUNT)
+            return -1;
 
-            if (Configuration.IGNORE_ACCESSORIES)
-                page.auctions.removeIf(a -> a.category != "accessories");
+        if (attributes.RarityUpgrades > 0 && Configuration.IGNORE_RECOMBOBULATOR)
+            return -1;
 
-            if (Configuration.IGNORE_CAKE_SOULS)
-                page.auctions.removeIf(a -> a.item_lore.contains("Cake Soul"));
+        String itemId = attributes.Id;
+        String modifier = attributes.Modifier;
 
-            if (Configuration.IGNORE_SKINS)
-                page.auctions.removeIf(a -> a.item_name.contains("Skin"));
+        StringBuilder key = new StringBuilder(48);
+        key.append(itemId).append('|').append(tier.charAt(0));
 
-            if (Configuration.IGNORE_FURNITURE)
-                page.auctions.removeIf(a -> a.item_lore.contains("Furniture"));
+        // These ids cover many different items, which are only told apart by their name.
+        if (itemId == null || GENERIC_ITEM_IDS.contains(itemId))
+            key.append('|').append(GetNames().Get(itemName, tier, null));
 
-            if (Configuration.WHITELIST_ITEMS.size() > 0)
+        // Qualifiers are always appended when kept, so keys never collide across configurations.
+        if (!Configuration.IGNORE_STARS)
+            key.append("|s").append(attributes.Stars);
+
+        if (!Configuration.IGNORE_REFORGES)
+            key.append("|r").append(modifier);
+
+        String canonical = key.toString();
+        int id = ItemKeys.Find(canonical);
+        if (id < 0)
+            id = ItemKeys.Add(canonical, GetNames().Get(itemName, tier, Configuration.IGNORE_REFORGES ? modifier : null));
+
+        return id;
+    }
+
+    private static Hit CreateHit(String name, int price, int nextPrice, AuctionId id) {
+        int profit = nextPrice - price;
+        double percent = (double)nextPrice / (double)price * 100;
+        DecimalFormat dec = new DecimalFormat("#0.00");
+
+        if (price > Configuration.MIN_PRICE &&
+                price < Configuration.MAX_PRICE &&
+                profit > Configuration.MIN_PROFIT)
+        {
+            String inMoney = Utils.InMoney(price, 0);
+            String profitInMoney = Utils.InMoney(profit, 0);
+
+            return new Hit(
+                    String.format("-> %s | Price: %s | Profit: %s (%s", name, inMoney, profitInMoney, dec.format(percent)) + "%)",
+                    Configuration.SORT_BY_PROFIT ? profit : percent,
+                    id
+            );
+        }
+
+        return null;
+    }
+
+    private static void Alert(List<Hit> Hits) {
+        Hits.sort(Comparator.comparingDouble(h -> h.price));
+
+        for (Hit entry : Hits)
+        {
+            String cmd = "/viewauction " + entry.id;
+
+            if (Configuration.AUTO_OPEN && !Configuration.SORT_BY_PROFIT && !ShownIds.Contains(entry.id))
             {
-                for (int i = 0; i < Configuration.WHITELIST_ITEMS.size(); i++)
+                if (entry.price >= Configuration.MIN_AUTO_OPEN_PERCENT)
                 {
-                    int index = i;
-                    if (Configuration.WHITELIST_ITEMS.get(i).contains("|"))
-                    {
-                        String[] whitelistData = Configuration.WHITELIST_ITEMS.get(i).split("|");
-
-                        page.auctions.removeIf(a -> a.item_name != whitelistData[0] ||
-                                !a.extra.contains(whitelistData[0]) ||
-                                !a.item_lore.contains(whitelistData[1]));
-                    }
-                    else
-                    {
-                        page.auctions.removeIf(a -> a.item_name != Configuration.WHITELIST_ITEMS.get(index));
-                    }
+                    Minecraft.getMinecraft().thePlayer.sendChatMessage(cmd);
+                    ShownIds.Add(entry.id);
                 }
             }
 
-            Auctions.addAll(page.auctions);
-
-            CheckedPages++;
+            Utils.SendMessage(entry.name, cmd);
         }
-
-        return null;
     }
 
-    public static String DownloadString(String url) throws IOException {
-        return Jsoup.connect(url).ignoreContentType(true).get().text();
+    /**
+     * @param onRequest Called right before the request is sent, may be null.
+     */
+    private static Api ProcessPage(int pageNum, Runnable onRequest) throws IOException, InterruptedException {
+        String key = Keys.Acquire();
+
+        Limiter.Acquire();
+        long started = System.currentTimeMillis();
+        if (onRequest != null)
+            onRequest.run();
+
+        ConcurrencyLimiter.Outcome outcome = ConcurrencyLimiter.Outcome.FAILED;
+
+        try (InputStream stream = ApiClient.Open(PageUrl(key, pageNum))) {
+            Api page = AuctionParser.Parse(stream, GetFilter(), 0, Decoded);
+            outcome = ConcurrencyLimiter.Outcome.SUCCESS;
+            Latencies.Record(System.currentTimeMillis() - started);
+            return page;
+        }
+        catch (ApiClient.StatusException e) {
+            Keys.Report(key, e.Status);
+            if (e.Status == 429)
+                outcome = ConcurrencyLimiter.Outcome.THROTTLED;
+            throw e;
+        }
+        finally {
+            Limiter.Release(System.currentTimeMillis() - started, outcome);
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.rubby.hyscalper.core;
+
+import com.google.gson.reflect.TypeToken;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Display prefix of a reforge by its {@code ExtraAttributes.modifier} id. Most prefixes are just
+ * the capitalized id, the bundled {@code reforges.json} only lists the ids that don't match the
+ * prefix shown in the item name ({@code odd_sword} is "Odd", {@code aote_stone} is "Warped").
+ */
+public class ReforgeDictionary {
+    private static final String RESOURCE = "/assets/hyscalper/reforges.json";
+
+    private static volatile Map<String, String> Prefixes;
+
+    /**
+     * @return The prefix the reforge adds to an item name.
+     */
+    public static String Prefix(String modifier) {
+        String prefix = GetPrefixes().get(modifier);
+        if (prefix != null)
+            return prefix;
+
+        return modifier.substring(0, 1).toUpperCase() + modifier.substring(1);
+    }
+
+    private static Map<String, String> GetPrefixes() {
+        Map<String, String> prefixes = Prefixes;
+        if (prefixes != null)
+            return prefixes;
+
+        synchronized (ReforgeDictionary.class) {
+            if (Prefixes == null)
+                Prefixes = Load();
+
+            return Prefixes;
+        }
+    }
+
+    private static Map<String, String> Load() {
+        try (InputStream stream = ReforgeDictionary.class.getResourceAsStream(RESOURCE)) {
+            if (stream == null)
+                return new HashMap<>();
+
+            Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
+            Map<String, String> prefixes = Processor.Parser.fromJson(reader, new TypeToken<Map<String, String>>() {}.getType());
+            return prefixes == null ? new HashMap<>() : prefixes;
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+}
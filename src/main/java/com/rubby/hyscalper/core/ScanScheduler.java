@@ -0,0 +1,151 @@
+package com.rubby.hyscalper.core;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules scans right after the API publishes a new auction snapshot.
+ * The refresh period is learned from the lastUpdated of consecutive snapshots and the delay
+ * between lastUpdated and the snapshot being visible to us from the scans themselves, so each
+ * scan fires {@code SCAN_OFFSET} ms after the predicted refresh. When a prediction misses
+ * (the snapshot is still the old one) we poll every {@code POLL_INTERVAL} ms until it shows
+ * up and re-sync on it. A scan that finds the new snapshot on the first try may have been late,
+ * so each one moves the next scan earlier until one misses again, and the period is only taken
+ * as-is from snapshots we watched change.
+ * <p>
+ * In sniper mode the first pages are also polled every {@code SNIPER_INTERVAL} ms, while full
+ * scans only run every {@code FULL_SCAN_INTERVAL} seconds. Both run on the one scheduler thread,
+ * so they never overlap and can share the processor's state without locking.
+ */
+public class ScanScheduler {
+    private static final long IDLE_DELAY = 1000;
+    private static final long MIN_SNIPER_INTERVAL = 100;
+    private static final long MIN_LAG_STEP = 100;
+
+    private final ScheduledExecutorService Executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HyScalper Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long Period = 0;
+    private long Lag = -1;
+    private long LastSnapshot = 0;
+    private int Misses = 0;
+    private long LastFullScan = 0;
+
+    public void Start(long initialDelay) {
+        Executor.schedule(this::Run, initialDelay, TimeUnit.MILLISECONDS);
+        Executor.schedule(this::RunSniper, initialDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private void Run() {
+        long delay = IDLE_DELAY;
+
+        try {
+            long started = System.currentTimeMillis();
+            long fullScanDue = LastFullScan + Processor.Configuration.FULL_SCAN_INTERVAL * 1000L - started;
+
+            if (Processor.ToggleBoolean && Processor.Configuration.SNIPER_MODE && LastFullScan != 0 && fullScanDue > 0)
+            {
+                delay = fullScanDue;
+            }
+            else if (Processor.ToggleBoolean)
+            {
+                if (Processor.Process())
+                {
+                    LastFullScan = started;
+                    delay = OnSnapshot(Processor.LastUpdated, started);
+                }
+                else
+                {
+                    delay = OnMiss();
+                }
+            }
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            delay = Math.max(Processor.Configuration.POLL_INTERVAL, IDLE_DELAY);
+        }
+        finally {
+            Executor.schedule(this::Run, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void RunSniper() {
+        try {
+            if (Processor.ToggleBoolean && Processor.Configuration.SNIPER_MODE)
+                Processor.Snipe(LastFullScan + Processor.Configuration.FULL_SCAN_INTERVAL * 1000L);
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+        }
+        finally {
+            long delay = Processor.Configuration.SNIPER_MODE ? Processor.Configuration.SNIPER_INTERVAL : IDLE_DELAY;
+            Executor.schedule(this::RunSniper, Math.max(MIN_SNIPER_INTERVAL, delay), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long OnSnapshot(long lastUpdated, long observedAt) {
+        if (LastSnapshot != 0 && lastUpdated > LastSnapshot)
+            LearnPeriod(lastUpdated - LastSnapshot);
+
+        long observedLag = Math.max(0, observedAt - lastUpdated);
+        if (Lag < 0)
+        {
+            Lag = observedLag;
+        }
+        else if (Misses > 0)
+        {
+            // We polled until the snapshot showed up, so it became visible during the last poll
+            // interval, take the middle of it.
+            Lag = Math.max(0, observedLag - Processor.Configuration.POLL_INTERVAL / 2);
+        }
+        else
+        {
+            // A hit on the first try only says the lag is at most this, so the next scan moves
+            // earlier until one misses. The polling after that miss finds the real lag again.
+            Lag = Math.min(Lag, observedLag);
+            Lag = Math.max(0, Lag - Math.max(MIN_LAG_STEP, Lag / 4));
+        }
+
+        LastSnapshot = lastUpdated;
+        Misses = 0;
+
+        if (Period == 0)
+            return Processor.Configuration.COOLDOWN * 1000L;
+
+        long next = lastUpdated + Period + Lag + Processor.Configuration.SCAN_OFFSET;
+        return next - System.currentTimeMillis();
+    }
+
+    private void LearnPeriod(long delta) {
+        if (Misses > 0)
+        {
+            // We watched the previous snapshot until it changed, so the delta is exactly one period.
+            // One shorter than the period we have means that one spanned several refreshes.
+            Period = (Period == 0 || delta < Period * 2 / 3) ? delta : (Period * 3 + delta) / 4;
+        }
+        else if (Period > 0)
+        {
+            // Caught on the first try, the delta may span several refreshes, sniper mode full scans
+            // always do. Without a period to divide by it says nothing.
+            long refreshes = Math.max(1, Math.round((double)delta / Period));
+            Period = (Period * 3 + delta / refreshes) / 4;
+        }
+    }
+
+    private long OnMiss() {
+        Misses++;
+
+        // Polled for longer than a whole period, the period changed, learn it again.
+        if (Period > 0 && Misses * (long)Processor.Configuration.POLL_INTERVAL > Period)
+        {
+            Period = 0;
+            Lag = -1;
+        }
+
+        return Processor.Configuration.POLL_INTERVAL;
+    }
+}
@@ -1,12 +1,14 @@
 package com.rubby.hyscalper.helpers;
 
+import com.rubby.hyscalper.core.AuctionId;
+
 public class Hit
 {
     public String name;
     public double price;
-    public String id;
+    public AuctionId id;
 
-    public Hit(String _name, double _price, String _id)
+    public Hit(String _name, double _price, AuctionId _id)
     {
         name = _name;
         id = _id;
@@ -0,0 +1,132 @@
+package com.rubby.hyscalper.helpers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Finds any of a set of keywords in a text with a single pass over the text (Aho-Corasick).
+ * The automaton is compiled to a flat transition table over the characters the keywords
+ * actually use, so scanning allocates nothing and costs the same however many keywords there are.
+ */
+public class KeywordMatcher {
+    private final char[] Alphabet;
+    private final int[] AsciiClasses = new int[128];
+    private final int Width;
+    private final int[] Transitions;
+    private final boolean[] Accepting;
+
+    public KeywordMatcher(Collection<String> keywords) {
+        TreeSet<Character> chars = new TreeSet<>();
+        for (String keyword : keywords)
+        {
+            for (int i = 0; i < keyword.length(); i++)
+                chars.add(keyword.charAt(i));
+        }
+
+        // Class 0 stands for every character no keyword uses.
+        Alphabet = new char[chars.size()];
+        int index = 0;
+        for (char c : chars)
+        {
+            Alphabet[index] = c;
+            if (c < AsciiClasses.length)
+                AsciiClasses[c] = index + 1;
+            index++;
+        }
+        Width = Alphabet.length + 1;
+
+        // Build the trie, state 0 is the root so 0 also means "no edge" while building.
+        List<int[]> rows = new ArrayList<>();
+        List<Boolean> accepting = new ArrayList<>();
+        rows.add(new int[Width]);
+        accepting.add(false);
+
+        for (String keyword : keywords)
+        {
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++)
+            {
+                int charClass = ClassOf(keyword.charAt(i));
+                if (rows.get(state)[charClass] == 0)
+                {
+                    rows.get(state)[charClass] = rows.size();
+                    rows.add(new int[Width]);
+                    accepting.add(false);
+                }
+                state = rows.get(state)[charClass];
+            }
+            accepting.set(state, true);
+        }
+
+        // Resolve failure links breadth first, turning the trie into a complete automaton.
+        int[] fail = new int[rows.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int charClass = 0; charClass < Width; charClass++)
+        {
+            int child = rows.get(0)[charClass];
+            if (child != 0)
+                queue.add(child);
+        }
+
+        while (!queue.isEmpty())
+        {
+            int state = queue.poll();
+            if (accepting.get(fail[state]))
+                accepting.set(state, true);
+
+            int[] row = rows.get(state);
+            int[] failRow = rows.get(fail[state]);
+            for (int charClass = 0; charClass < Width; charClass++)
+            {
+                int child = row[charClass];
+                if (child != 0)
+                {
+                    fail[child] = failRow[charClass];
+                    queue.add(child);
+                }
+                else
+                {
+                    row[charClass] = failRow[charClass];
+                }
+            }
+        }
+
+        Transitions = new int[rows.size() * Width];
+        Accepting = new boolean[rows.size()];
+        for (int state = 0; state < rows.size(); state++)
+        {
+            System.arraycopy(rows.get(state), 0, Transitions, state * Width, Width);
+            Accepting[state] = accepting.get(state);
+        }
+    }
+
+    /**
+     * @return Whether the text contains at least one of the keywords, stops at the first one found.
+     */
+    public boolean ContainsAny(String text) {
+        if (Accepting[0])
+            return true;
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            state = Transitions[state * Width + ClassOf(text.charAt(i))];
+            if (Accepting[state])
+                return true;
+        }
+
+        return false;
+    }
+
+    private int ClassOf(char c) {
+        if (c < AsciiClasses.length)
+            return AsciiClasses[c];
+
+        int index = Arrays.binarySearch(Alphabet, c);
+        return index < 0 ? 0 : index + 1;
+    }
+}
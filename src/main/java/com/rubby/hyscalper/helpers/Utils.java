@@ -11,6 +11,7 @@ import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 public class Utils {
     public static void SendMessage(String message)
@@ -60,17 +61,17 @@ public class Utils {
                 : InMoney(d, i + 1);
     }
 
-    private static final String NamePattern = "[^A-z0-9 -]";
-    private static final String PetPattern = "\\[Lvl [0-9]*] ";
+    private static final Pattern NamePattern = Pattern.compile("[^A-z0-9 -]");
+    private static final Pattern PetPattern = Pattern.compile("\\[Lvl [0-9]*] ");
     public static String PureName(String source, Configuration config)
     {
         String name = source;
 
         if (config.IGNORE_STARS)
-            name = name.replaceAll(NamePattern, "");
+            name = NamePattern.matcher(name).replaceAll("");
 
         if (config.IGNORE_PET_LEVELS)
-            name = name.replaceAll(PetPattern, "");
+            name = PetPattern.matcher(name).replaceAll("");
 
         return name.trim();
     }
@@ -1,8 +1,9 @@
 package com.rubby.hyscalper.interfaces;
 
-import java.util.List;
+import com.rubby.hyscalper.core.AuctionColumns;
 
 public class Api {
     public int totalPages;
-    public List<Auction> auctions;
+    public long lastUpdated;
+    public AuctionColumns auctions;
 }
@@ -6,10 +6,27 @@ import java.util.List;
 public class Configuration {
     public String WARNING = "Make sure you have the API keys properly formatted.";
     public List<String> API_KEYS = new ArrayList<>();
+    public int KEY_REQUESTS_PER_MINUTE = 120;
+    public int KEY_BURST = 60;
+    public int KEY_COOLDOWN = 60;
     public boolean AUTO_OPEN = true;
     public double MIN_AUTO_OPEN_PERCENT = 200;
     public int COOLDOWN = 30;
+    public int SCAN_OFFSET = 300;
+    public int POLL_INTERVAL = 1000;
+    public boolean SNIPER_MODE = false;
+    public int SNIPER_PAGES = 1;
+    public int SNIPER_INTERVAL = 1000;
+    public int FULL_SCAN_INTERVAL = 300;
     public int THREAD_COUNT = 8;
+    public int MIN_THREADS = 2;
+    public int MAX_THREADS = 24;
+    public double LATENCY_TOLERANCE = 3;
+    public int CONNECT_TIMEOUT = 3000;
+    public int READ_TIMEOUT = 10000;
+    public int PAGE_RETRIES = 2;
+    public int RETRY_BACKOFF = 100;
+    public boolean HEDGE_REQUESTS = true;
     public List<String> WHITELIST_ITEMS = new ArrayList<>();
     public boolean IGNORE_SKINS = true;
     public boolean IGNORE_ACCESSORIES = false;
@@ -20,6 +37,7 @@ public class Configuration {
     public boolean IGNORE_REFORGES = true;
     public boolean IGNORE_CAKE_SOULS = true;
     public boolean IGNORE_FURNITURE = true;
+    public List<String> LORE_BLACKLIST = new ArrayList<>();
     public String INFO = "SORT_BY_PROFIT: true means its gonna sort by profit, false means its gonna sort by percent.";
     public boolean SORT_BY_PROFIT = false;
     public int MIN_PRICE = 1;